@@ -0,0 +1,73 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.BookAccountingServiceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+
+/**
+ * Встроенный PostgreSQL и контекст приложения для сквозных бенчмарков.
+ * Схема создается миграциями Liquibase, как в рабочем окружении.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    static EmbeddedPostgres startPostgres() throws IOException {
+        return EmbeddedPostgres.builder().start();
+    }
+
+    static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, String... properties) {
+        return start(WebApplicationType.NONE, postgres, properties);
+    }
+
+    /**
+     * Запускает приложение со встроенным веб-сервером на случайном порту.
+     */
+    static ConfigurableApplicationContext startWebApplication(EmbeddedPostgres postgres, String... properties) {
+        return start(WebApplicationType.SERVLET, postgres, properties);
+    }
+
+    /**
+     * Запускает приложение в профиле reactive (WebFlux и R2DBC).
+     */
+    static ConfigurableApplicationContext startReactiveWebApplication(EmbeddedPostgres postgres, String... properties) {
+        return start(WebApplicationType.REACTIVE, postgres, properties, "reactive");
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType,
+                                                        EmbeddedPostgres postgres, String[] properties,
+                                                        String... profiles) {
+        return new SpringApplicationBuilder(BookAccountingServiceApplication.class)
+                .web(webApplicationType)
+                .profiles(profiles)
+                .properties("server.port=0")
+                .properties(
+                        "SPRING_DATASOURCE_HOST=localhost",
+                        "SPRING_DATASOURCE_PORT=" + postgres.getPort(),
+                        "SPRING_DATASOURCE_DB=postgres",
+                        "SPRING_DATASOURCE_USERNAME=postgres",
+                        "SPRING_DATASOURCE_PASSWORD=postgres",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.com.kode.bookaccountingservice=warn")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Заполняет базу авторами и книгами набором SQL-запросов без участия приложения.
+     */
+    static void seed(JdbcTemplate jdbcTemplate, int authors, int books) {
+        jdbcTemplate.update("insert into authors (id, name, birth_year) " +
+                "select nextval('author_seq'), 'Автор ' || g, 1800 + g % 200 from generate_series(1, ?) g", authors);
+        jdbcTemplate.update("insert into books (id, title, author_id, year, genre) " +
+                "select nextval('book_seq'), 'Книга ' || g, a.id, 1800 + g % 225, 'Жанр ' || g % 20 " +
+                "from generate_series(1, ?) g join authors a on a.name = 'Автор ' || (g % ? + 1)", books, authors);
+        jdbcTemplate.execute("analyze");
+    }
+}
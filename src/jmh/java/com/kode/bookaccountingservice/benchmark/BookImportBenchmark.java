@@ -0,0 +1,94 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.dto.BookImportResponse;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.service.BookImportService;
+import com.kode.bookaccountingservice.service.BookService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность вставки книг (строк в секунду): пакетный импорт против поштучного addBook,
+ * с генерацией ID из последовательности (pooled-lo) и с прежней генерацией IDENTITY.
+ * При IDENTITY ID возвращает сама вставка, поэтому Hibernate выполняет ее сразу и JDBC-батчи не используются;
+ * сущности переключаются на IDENTITY файлом identity-orm.xml, схема базы данных та же.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookImportBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"100", "500"})
+    private int chunkSize;
+
+    @Param({"SEQUENCE", "IDENTITY"})
+    private String idGeneration;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private BookImportService bookImportService;
+    private BookService bookService;
+    private long authorId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = BenchmarkDatabase.startPostgres();
+        List<String> properties = new ArrayList<>(List.of("app.books.import.chunk-size=" + chunkSize));
+        if (idGeneration.equals("IDENTITY")) {
+            properties.add("spring.jpa.mapping-resources=identity-orm.xml");
+        }
+        context = BenchmarkDatabase.startApplication(postgres, properties.toArray(String[]::new));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkDatabase.seed(jdbcTemplate, 10, 0);
+        authorId = jdbcTemplate.queryForObject("select min(id) from authors", Long.class);
+        bookImportService = context.getBean(BookImportService.class);
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BookImportResponse importBooks() {
+        return bookImportService.importBooks(nextRequests());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void addBookOneByOne() {
+        for (BookRequest bookRequest : nextRequests()) {
+            bookService.addBook(bookRequest);
+        }
+    }
+
+    private List<BookRequest> nextRequests() {
+        List<BookRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            BookRequest request = new BookRequest();
+            request.setTitle("Импорт " + sequence.incrementAndGet());
+            request.setAuthorId(authorId);
+            request.setYear(2000);
+            request.setGenre("Роман");
+            requests.add(request);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,118 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import com.kode.bookaccountingservice.service.BookService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сквозные бенчмарки чтения книг через BookService на встроенном PostgreSQL.
+ * Варианты legacy воспроизводят прежний путь existsById + findById для сравнения числа обращений к базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"10000"})
+    private int books;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookRepository bookRepository;
+    private TransactionTemplate transactionTemplate;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = BenchmarkDatabase.startPostgres();
+        context = BenchmarkDatabase.startApplication(postgres, "app.cache.books.enabled=" + cache);
+        BenchmarkDatabase.seed(context.getBean(JdbcTemplate.class), Math.max(books / 10, 1), books);
+        bookService = context.getBean(BookService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        ids = context.getBean(JdbcTemplate.class).queryForList("select id from books", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        reportStatementCounts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public BookResponse getBookById() {
+        return bookService.getBookById(randomId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BookResponse getBookByIdConcurrent() {
+        return bookService.getBookById(randomId());
+    }
+
+    @Benchmark
+    public BookResponse legacyGetBookById() {
+        return legacyLookup(randomId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BookResponse legacyGetBookByIdConcurrent() {
+        return legacyLookup(randomId());
+    }
+
+    @Benchmark
+    public CursorPageResponse<BookResponse> getBooksPage() {
+        return bookService.getBooksPage(null, 50);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<BookResponse> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    private BookResponse legacyLookup(long id) {
+        return transactionTemplate.execute(status -> bookRepository.existsById(id)
+                ? bookRepository.findResponseById(id).orElse(null)
+                : null);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private void reportStatementCounts() {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        legacyLookup(ids[0]);
+        long legacy = statistics.getPrepareStatementCount();
+        statistics.clear();
+        bookService.getBookById(ids[1]);
+        long current = statistics.getPrepareStatementCount();
+        System.out.printf("SQL-запросов на поиск книги по ID: прежний путь %d, текущий %d%n", legacy, current);
+    }
+}
@@ -0,0 +1,111 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.dto.BookImportResponse;
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.service.BookImportService;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.CatalogLoadService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность массовой загрузки книг (строк в секунду) в базу с миллионом книг:
+ * COPY через промежуточную таблицу из CSV и NDJSON против пакетного импорта NDJSON через JPA.
+ * Каждый вызов загружает книги с новыми наименованиями; авторы загрузки уже есть в базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    private static final int AUTHORS = 1000;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private CatalogLoadService catalogLoadService;
+    private BookImportService bookImportService;
+    private Long[] authorIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = BenchmarkDatabase.startPostgres();
+        context = BenchmarkDatabase.startApplication(postgres);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkDatabase.seed(jdbcTemplate, AUTHORS, 1_000_000);
+        authorIds = jdbcTemplate.queryForList("select id from authors order by id", Long.class).toArray(Long[]::new);
+        catalogLoadService = context.getBean(CatalogLoadService.class);
+        bookImportService = context.getBean(BookImportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    /**
+     * Загруженные строки; JMH выводит строки в секунду рядом с числом загрузок.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Loaded {
+        public long rows;
+    }
+
+    @Benchmark
+    public CatalogLoadResponse copyCsv(Loaded loaded) throws IOException {
+        StringBuilder csv = new StringBuilder("title,author,year,genre\n");
+        long first = sequence.getAndAdd(rows);
+        for (long i = first; i < first + rows; i++) {
+            csv.append("Загрузка ").append(i).append(",Автор ").append(i % AUTHORS + 1).append(",2000,Роман\n");
+        }
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.CSV, toStream(csv));
+        loaded.rows += response.getCreated();
+        return response;
+    }
+
+    @Benchmark
+    public CatalogLoadResponse copyNdjson(Loaded loaded) throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        long first = sequence.getAndAdd(rows);
+        for (long i = first; i < first + rows; i++) {
+            ndjson.append("{\"title\":\"Загрузка ").append(i).append("\",\"author\":\"Автор ").append(i % AUTHORS + 1)
+                    .append("\",\"year\":2000,\"genre\":\"Роман\"}\n");
+        }
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.NDJSON, toStream(ndjson));
+        loaded.rows += response.getCreated();
+        return response;
+    }
+
+    @Benchmark
+    public BookImportResponse jpaImportNdjson(Loaded loaded) {
+        StringBuilder ndjson = new StringBuilder();
+        long first = sequence.getAndAdd(rows);
+        for (long i = first; i < first + rows; i++) {
+            ndjson.append("{\"title\":\"Загрузка ").append(i).append("\",\"authorId\":").append(authorIds[(int) (i % AUTHORS)])
+                    .append(",\"year\":2000,\"genre\":\"Роман\"}\n");
+        }
+        BookImportResponse response = bookImportService.importNdjson(toStream(ndjson));
+        loaded.rows += response.getCreated();
+        return response;
+    }
+
+    private static ByteArrayInputStream toStream(StringBuilder data) {
+        return new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
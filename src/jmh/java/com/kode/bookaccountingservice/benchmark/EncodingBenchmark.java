@@ -0,0 +1,64 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Размер ответа и стоимость сериализации страницы из 10 000 книг в JSON, Smile и CBOR, без сжатия и с gzip.
+ * Размеры ответов выводятся при подготовке бенчмарка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private List<BookResponse> books;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> SmileMapper.builder().findAndAddModules().build();
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            default -> JsonMapper.builder().findAndAddModules().build();
+        };
+        books = new ArrayList<>(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            books.add(new BookResponse((long) i, "Книга " + i, (long) (i % 1000), 1800 + i % 225, "Жанр " + i % 20));
+        }
+        System.out.printf("%s%s: %d байт%n", format, gzip ? " + gzip" : "", serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+        if (gzip) {
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(buffer)) {
+                objectMapper.writeValue(gzipStream, books);
+            }
+        } else {
+            objectMapper.writeValue(buffer, books);
+        }
+        return buffer.toByteArray();
+    }
+}
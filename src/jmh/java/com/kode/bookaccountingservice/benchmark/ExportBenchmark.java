@@ -0,0 +1,117 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность выгрузки книг (строк в секунду) на встроенном PostgreSQL с миллионами книг:
+ * COPY TO STDOUT в CSV и NDJSON, со сжатием и без, против потоковой выдачи BookResponse через Jackson.
+ * Выгрузка пишется в поток, который только считает байты, поэтому измеряется стоимость базы данных и приложения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"1000000", "3000000"})
+    private int books;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private CatalogExportService catalogExportService;
+    private BookService bookService;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = BenchmarkDatabase.startPostgres();
+        context = BenchmarkDatabase.startApplication(postgres);
+        BenchmarkDatabase.seed(context.getBean(JdbcTemplate.class), Math.max(books / 10, 1), books);
+        catalogExportService = context.getBean(CatalogExportService.class);
+        bookService = context.getBean(BookService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    /**
+     * Выгруженные строки и байты; JMH выводит строки в секунду и байты в секунду рядом с числом выгрузок.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Exported {
+        public long rows;
+        public long bytes;
+    }
+
+    @Benchmark
+    public void copyCsv(Exported exported) throws IOException {
+        export(CatalogFormat.CSV, false, exported);
+    }
+
+    @Benchmark
+    public void copyCsvGzip(Exported exported) throws IOException {
+        export(CatalogFormat.CSV, true, exported);
+    }
+
+    @Benchmark
+    public void copyNdjson(Exported exported) throws IOException {
+        export(CatalogFormat.NDJSON, false, exported);
+    }
+
+    @Benchmark
+    public void jacksonStream(Exported exported) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            bookService.streamAllBooks(book -> {
+                try {
+                    generator.writeObject(book);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                exported.rows++;
+            });
+        }
+        exported.bytes += out.count;
+    }
+
+    private void export(CatalogFormat format, boolean gzip, Exported exported) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exported.rows += catalogExportService.exportBooks(format, gzip, out);
+        exported.bytes += out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость логирования одного запроса (три строки INFO, как в контроллере и сервисе)
+ * при синхронной записи в файл, через асинхронный аппендер и с выборочным логированием.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    @Param({"sync", "async", "async-sampled"})
+    private String mode;
+
+    private Path directory;
+    private Logger controllerLogger;
+    private Logger serviceLogger;
+    private Logger disabledLogger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JoranException {
+        directory = Files.createTempDirectory("logging-benchmark");
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(loggerContext);
+        configurator.doConfigure(new ByteArrayInputStream(configuration().getBytes(StandardCharsets.UTF_8)));
+        controllerLogger = LoggerFactory.getLogger("com.kode.bookaccountingservice.controller.BookController");
+        serviceLogger = LoggerFactory.getLogger("com.kode.bookaccountingservice.service.BookService");
+        disabledLogger = LoggerFactory.getLogger("benchmark.disabled");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void logRequest() {
+        long id = Thread.currentThread().getId();
+        controllerLogger.info("Получен запрос на выдачу данных о книге #{}", id);
+        serviceLogger.info("Получение книги по идентификатору {}", id);
+        serviceLogger.info("Найдено {} книг", 1);
+    }
+
+    @Benchmark
+    public void concatenationWhenDisabled() {
+        disabledLogger.info("Получение книги по идентификатору " + Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public void parameterizedWhenDisabled() {
+        disabledLogger.info("Получение книги по идентификатору {}", Thread.currentThread().getId());
+    }
+
+    private String configuration() {
+        String file = directory.resolve("application.log").toString();
+        String appender = mode.equals("sync") ? "FILE" : "ASYNC";
+        int rate = mode.equals("async-sampled") ? 10 : 1;
+        return "<configuration>" +
+                "<turboFilter class=\"com.kode.bookaccountingservice.logging.SamplingTurboFilter\">" +
+                "<rate>" + rate + "</rate><loggers>com.kode.bookaccountingservice</loggers></turboFilter>" +
+                "<appender name=\"FILE\" class=\"ch.qos.logback.core.FileAppender\">" +
+                "<file>" + file + "</file><encoder><pattern>" + PATTERN + "</pattern></encoder></appender>" +
+                "<appender name=\"ASYNC\" class=\"ch.qos.logback.classic.AsyncAppender\">" +
+                "<queueSize>8192</queueSize><discardingThreshold>1638</discardingThreshold>" +
+                "<appender-ref ref=\"FILE\"/></appender>" +
+                "<logger name=\"benchmark.disabled\" level=\"warn\"/>" +
+                "<root level=\"info\"><appender-ref ref=\"" + appender + "\"/></root>" +
+                "</configuration>";
+    }
+}
@@ -0,0 +1,83 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CursorCodec;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение страниц книг при маршрутизации транзакций только для чтения на реплику.
+ * Основная база и реплика — два независимых встроенных PostgreSQL с одинаковыми данными;
+ * после прогона выводится число транзакций, выполненных на каждом из них.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ReadReplicaBenchmark {
+
+    private static final String TRANSACTIONS = "select xact_commit from pg_stat_database where datname = 'postgres'";
+
+    @Param({"10000"})
+    private int books;
+
+    @Param({"false", "true"})
+    private boolean replica;
+
+    private EmbeddedPostgres primaryPostgres;
+    private EmbeddedPostgres replicaPostgres;
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private long primaryTransactions;
+    private long replicaTransactions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        primaryPostgres = BenchmarkDatabase.startPostgres();
+        replicaPostgres = BenchmarkDatabase.startPostgres();
+        // схема реплики создается теми же миграциями, что и схема основной базы
+        try (ConfigurableApplicationContext replicaContext = BenchmarkDatabase.startApplication(replicaPostgres)) {
+            BenchmarkDatabase.seed(replicaContext.getBean(JdbcTemplate.class), Math.max(books / 10, 1), books);
+        }
+        String[] properties = replica
+                ? new String[]{"app.datasource.replica.url=" + replicaPostgres.getJdbcUrl("postgres", "postgres")}
+                : new String[0];
+        context = BenchmarkDatabase.startApplication(primaryPostgres, properties);
+        BenchmarkDatabase.seed(context.getBean(JdbcTemplate.class), Math.max(books / 10, 1), books);
+        bookService = context.getBean(BookService.class);
+        primaryTransactions = transactions(primaryPostgres);
+        replicaTransactions = transactions(replicaPostgres);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%nТранзакций на основной базе: %d, на реплике: %d%n",
+                transactions(primaryPostgres) - primaryTransactions,
+                transactions(replicaPostgres) - replicaTransactions);
+        context.close();
+        replicaPostgres.close();
+        primaryPostgres.close();
+    }
+
+    @Benchmark
+    public CursorPageResponse<BookResponse> getBooksPage() {
+        String cursor = CursorCodec.encode(ThreadLocalRandom.current().nextLong(books));
+        return bookService.getBooksPage(cursor, 50);
+    }
+
+    private static long transactions(EmbeddedPostgres postgres) {
+        Long count = new JdbcTemplate(postgres.getPostgresDatabase()).queryForObject(TRANSACTIONS, Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.SlicePageResponse;
+import com.kode.bookaccountingservice.entity.Author;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость построения DTO книг и их сериализации в JSON на больших списках.
+ * Страница авторов сравнивается в прежнем виде ({@code Page<Author>}) и в виде DTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookResponse> books;
+    private Page<Author> authors;
+    private SlicePageResponse<AuthorResponse> authorResponses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        books = mapBookResponses();
+        List<Author> authorList = new ArrayList<>(size);
+        List<AuthorResponse> authorResponseList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authorList.add(new Author((long) i, "Автор " + i, 1800 + i % 200));
+            authorResponseList.add(new AuthorResponse((long) i, "Автор " + i, 1800 + i % 200));
+        }
+        authors = new PageImpl<>(authorList, PageRequest.of(0, size), size * 10L);
+        authorResponses = new SlicePageResponse<>(authorResponseList, 0, size, true);
+    }
+
+    @Benchmark
+    public List<BookResponse> mapBookResponses() {
+        List<BookResponse> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new BookResponse((long) i, "Книга " + i, (long) (i % 100), 1800 + i % 225, "Роман"));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serializeBookResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthorPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(authors);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthorResponsePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(authorResponses);
+    }
+}
@@ -0,0 +1,91 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import com.kode.bookaccountingservice.service.SuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Задержка поиска подсказок и изменения индекса на каталоге из миллионов наименований.
+ * Объем памяти, занимаемой индексом, выводится при его построении.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class SuggestIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "война", "мир", "капитанская", "дочка", "мертвые", "души", "отцы", "дети", "герой", "нашего",
+            "времени", "преступление", "наказание", "братья", "карамазовы", "идиот", "анна", "каренина",
+            "евгений", "онегин", "горе", "от", "ума", "тихий", "дон", "мастер", "маргарита", "белая", "гвардия"
+    };
+
+    @Param({"1000000", "3000000"})
+    private int size;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private SuggestIndex suggestIndex;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedMemory();
+        suggestIndex = new SuggestIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) {
+            suggestIndex.put(new SuggestionResponse(SuggestionResponse.Type.BOOK, (long) i, title(random, i)));
+        }
+        long bytes = usedMemory() - before;
+        System.out.printf("Индекс подсказок: %d записей, %d МБ, %d байт на запись%n",
+                suggestIndex.size(), bytes / (1024 * 1024), bytes / size);
+        nextId.set(size);
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            queries[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+    }
+
+    @Benchmark
+    public List<SuggestionResponse> suggest() {
+        return suggestIndex.suggest(queries[ThreadLocalRandom.current().nextInt(queries.length)], 10);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<SuggestionResponse> suggestConcurrent() {
+        return suggestIndex.suggest(queries[ThreadLocalRandom.current().nextInt(queries.length)], 10);
+    }
+
+    @Benchmark
+    public void putAndRemove() {
+        long id = nextId.incrementAndGet();
+        suggestIndex.put(new SuggestionResponse(SuggestionResponse.Type.BOOK, id, "новая книга " + id));
+        suggestIndex.remove(SuggestionResponse.Type.BOOK, id);
+    }
+
+    private static String title(SplittableRandom random, int i) {
+        int words = 1 + random.nextInt(4);
+        StringBuilder builder = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return builder.append(i).toString();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочное сравнение потоков платформы, виртуальных потоков и профиля reactive (WebFlux и R2DBC)
+ * на HTTP-запросах к книгам. Режим SampleTime дает распределение задержек, включая p99;
+ * виртуальные потоки требуют Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(256)
+@Fork(1)
+public class ThreadingLoadBenchmark {
+
+    @Param({"platform", "virtual", "reactive"})
+    private String mode;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = BenchmarkDatabase.startPostgres();
+        context = "reactive".equals(mode)
+                ? BenchmarkDatabase.startReactiveWebApplication(postgres, "app.cache.books.enabled=false")
+                : BenchmarkDatabase.startWebApplication(postgres,
+                        "spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "app.cache.books.enabled=false");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkDatabase.seed(jdbcTemplate, 1000, 10000);
+        ids = jdbcTemplate.queryForList("select id from books", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public int getBookById() throws IOException, InterruptedException {
+        return send("/books/" + ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public int getBooksPage() throws IOException, InterruptedException {
+        return send("/books?limit=100");
+    }
+
+    private int send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
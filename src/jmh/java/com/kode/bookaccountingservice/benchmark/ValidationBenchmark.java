@@ -0,0 +1,60 @@
+package com.kode.bookaccountingservice.benchmark;
+
+import com.kode.bookaccountingservice.dto.BookRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость валидации BookRequest для корректного и некорректного запроса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BookRequest valid;
+    private BookRequest invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = request("Капитанская дочка", 1L, 1836, "Исторический роман");
+        invalid = request("", -1L, 3000, "X");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookRequest>> validateValidRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookRequest>> validateInvalidRequest() {
+        return validator.validate(invalid);
+    }
+
+    private static BookRequest request(String title, Long authorId, Integer year, String genre) {
+        BookRequest request = new BookRequest();
+        request.setTitle(title);
+        request.setAuthorId(authorId);
+        request.setYear(year);
+        request.setGenre(genre);
+        return request;
+    }
+}
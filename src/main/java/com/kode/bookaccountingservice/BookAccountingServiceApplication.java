@@ -1,8 +1,12 @@
 package com.kode.bookaccountingservice;
 
+import com.kode.bookaccountingservice.service.CatalogLoadRunner;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class BookAccountingServiceApplication {
@@ -10,7 +14,15 @@ public class BookAccountingServiceApplication {
     public static void main(String[] args) {
         Dotenv dotenv = Dotenv.load();
         dotenv.entries().forEach(entry-> System.setProperty(entry.getKey(), entry.getValue()));
-        SpringApplication.run(BookAccountingServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(BookAccountingServiceApplication.class);
+        ApplicationListener<ApplicationEnvironmentPreparedEvent> catalogLoadListener =
+                CatalogLoadRunner::disableWebServerIfRequested;
+        application.addListeners(catalogLoadListener);
+        ConfigurableApplicationContext context = application.run(args);
+        if (CatalogLoadRunner.isRequested(context.getEnvironment())) {
+            // загрузка каталога: без веб-сервера, с завершением после загрузки
+            System.exit(SpringApplication.exit(context));
+        }
     }
 
 }
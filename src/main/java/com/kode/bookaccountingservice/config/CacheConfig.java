@@ -0,0 +1,45 @@
+package com.kode.bookaccountingservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Конфигурация кэша книг и авторов.
+ * Каждый кэш включается отдельно; для выключенного кэша используется заглушка без хранения.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BOOKS = "books";
+    public static final String AUTHORS = "authors";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.books.enabled:true}") boolean booksEnabled,
+                                     @Value("${app.cache.books.spec:maximumSize=10000,expireAfterWrite=10m}") String booksSpec,
+                                     @Value("${app.cache.authors.enabled:true}") boolean authorsEnabled,
+                                     @Value("${app.cache.authors.spec:maximumSize=10000,expireAfterWrite=10m}") String authorsSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setAllowNullValues(false);
+        caffeineCacheManager.setCacheNames(List.of());
+        if (booksEnabled) {
+            caffeineCacheManager.registerCustomCache(BOOKS, Caffeine.from(booksSpec).recordStats().build());
+        }
+        if (authorsEnabled) {
+            caffeineCacheManager.registerCustomCache(AUTHORS, Caffeine.from(authorsSpec).recordStats().build());
+        }
+        CompositeCacheManager cacheManager = new CompositeCacheManager(caffeineCacheManager);
+        cacheManager.setFallbackToNoOpCache(true);
+        cacheManager.afterPropertiesSet();
+        // Изменения кэша применяются только после фиксации транзакции, чтобы не кэшировать незафиксированные данные
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
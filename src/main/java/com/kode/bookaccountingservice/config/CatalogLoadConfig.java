@@ -0,0 +1,24 @@
+package com.kode.bookaccountingservice.config;
+
+import com.kode.bookaccountingservice.service.CatalogLoadRunner;
+import com.kode.bookaccountingservice.service.CatalogLoadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Загрузка каталога из файла при запуске (включается заданием app.load.file).
+ */
+@Configuration
+@ConditionalOnProperty(CatalogLoadRunner.FILE_PROPERTY)
+public class CatalogLoadConfig {
+
+    @Bean
+    public CatalogLoadRunner catalogLoadRunner(CatalogLoadService catalogLoadService,
+                                               @Value("${" + CatalogLoadRunner.FILE_PROPERTY + "}") Path file) {
+        return new CatalogLoadRunner(catalogLoadService, file);
+    }
+}
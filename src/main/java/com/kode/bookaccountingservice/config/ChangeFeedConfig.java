@@ -0,0 +1,22 @@
+package com.kode.bookaccountingservice.config;
+
+import com.kode.bookaccountingservice.service.ChangeFeedService;
+import com.kode.bookaccountingservice.service.ChangeRelay;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Ретранслятор журнала изменений (отключается app.changes.relay.enabled=false).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.changes.relay.enabled", matchIfMissing = true)
+@EnableScheduling
+public class ChangeFeedConfig {
+
+    @Bean
+    public ChangeRelay changeRelay(ChangeFeedService changeFeedService) {
+        return new ChangeRelay(changeFeedService);
+    }
+}
@@ -0,0 +1,22 @@
+package com.kode.bookaccountingservice.config;
+
+import com.kode.bookaccountingservice.service.DeltaSyncService;
+import com.kode.bookaccountingservice.service.TombstonePurger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Очистка удаленных книг после срока хранения (отключается app.delta.purge.enabled=false).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.delta.purge.enabled", matchIfMissing = true)
+@EnableScheduling
+public class DeltaSyncConfig {
+
+    @Bean
+    public TombstonePurger tombstonePurger(DeltaSyncService deltaSyncService) {
+        return new TombstonePurger(deltaSyncService);
+    }
+}
@@ -0,0 +1,23 @@
+package com.kode.bookaccountingservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.metrics.TimedJsonHttpMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Конфигурация метрик, которые не создаются автоконфигурацией Spring Boot.
+ * Время обработки запросов, обращений к репозиториям, пула соединений и статистика Hibernate
+ * публикуются автоматически; здесь добавляется время сериализации ответов в JSON.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MeterRegistry meterRegistry) {
+        return new TimedJsonHttpMessageConverter(objectMapper, meterRegistry);
+    }
+}
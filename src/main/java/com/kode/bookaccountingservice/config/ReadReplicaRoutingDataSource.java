@@ -0,0 +1,72 @@
+package com.kode.bookaccountingservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Источник данных, направляющий транзакции только для чтения на реплику, а остальные — на основную базу данных.
+ * Если реплика отстает или недоступна, чтение выполняется на основной базе данных.
+ * Признак readOnly становится известен после начала транзакции, поэтому источник используется
+ * за {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, который запрашивает
+ * соединение при первом запросе к базе данных.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    enum Route {PRIMARY, REPLICA}
+
+    private final DataSource primaryDataSource;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                        ReplicaLagMonitor lagMonitor) {
+        this.primaryDataSource = primaryDataSource;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isReplicaUsable()
+                ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.PRIMARY) {
+            return primaryDataSource.getConnection();
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            log.warn("Не удалось получить соединение с репликой, чтение выполняется на основной базе данных", e);
+            lagMonitor.markUnavailable();
+            return primaryDataSource.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() == Route.PRIMARY) {
+            return primaryDataSource.getConnection(username, password);
+        }
+        try {
+            return super.getConnection(username, password);
+        } catch (SQLException e) {
+            log.warn("Не удалось получить соединение с репликой, чтение выполняется на основной базе данных", e);
+            lagMonitor.markUnavailable();
+            return primaryDataSource.getConnection(username, password);
+        }
+    }
+}
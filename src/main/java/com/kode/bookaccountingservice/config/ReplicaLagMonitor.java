@@ -0,0 +1,77 @@
+package com.kode.bookaccountingservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Периодически проверяет отставание реплики от основной базы данных.
+ * Реплика используется для чтения, пока она отвечает и ее отставание не превышает допустимого.
+ * Отставание считается нулевым, если реплика применила все полученные изменения,
+ * и для сервера, который не является репликой (например, при локальной проверке).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String LAG_QUERY = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration maxLag;
+    private volatile boolean available;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.jdbcTemplate.setQueryTimeout(5);
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Отставание реплики от основной базы данных")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("Используется ли реплика для чтения")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return можно ли направлять чтение на реплику
+     */
+    public boolean isReplicaUsable() {
+        return available;
+    }
+
+    /**
+     * Исключает реплику из чтения до следующей успешной проверки.
+     */
+    public void markUnavailable() {
+        available = false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval:5s}")
+    public void check() {
+        try {
+            Double lag = jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            boolean usable = lagSeconds * 1000 <= maxLag.toMillis();
+            if (usable != available) {
+                log.warn(usable ? "Реплика используется для чтения, отставание {} с"
+                        : "Реплика исключена из чтения: отставание {} с", lagSeconds);
+            }
+            available = usable;
+        } catch (DataAccessException e) {
+            if (available) {
+                log.warn("Реплика исключена из чтения: проверка отставания не выполнена", e);
+            }
+            available = false;
+        }
+    }
+}
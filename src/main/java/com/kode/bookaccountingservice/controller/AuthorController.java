@@ -1,34 +1,61 @@
 package com.kode.bookaccountingservice.controller;
 
+import com.kode.bookaccountingservice.dto.AuthorDeltaResponse;
 import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.dto.SlicePageResponse;
 import com.kode.bookaccountingservice.entity.Author;
 import com.kode.bookaccountingservice.service.AuthorService;
+import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.DeltaSyncService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * REST-контроллер для обработки запросов на авторов.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/authors")
 @Tag(name = "Authors", description = "API для управления авторами")
 public class AuthorController {
     private final AuthorService authorService;
+    private final BookService bookService;
+    private final DeltaSyncService deltaSyncService;
+    private final CatalogExportService catalogExportService;
 
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, BookService bookService, DeltaSyncService deltaSyncService,
+                            CatalogExportService catalogExportService) {
         this.authorService = authorService;
+        this.bookService = bookService;
+        this.deltaSyncService = deltaSyncService;
+        this.catalogExportService = catalogExportService;
     }
 
+    private static final String EXPAND_BOOKS = "books";
+
     private static final Logger log = LoggerFactory.getLogger(AuthorController.class);
 
     /**
@@ -49,36 +76,168 @@ public class AuthorController {
     }
 
     /**
-     * Получает GET запрос на постраничную выдачу списка авторов.
+     * Получает GET запрос на выдачу страницы авторов с курсорной пагинацией.
+     * @param cursor курсор предыдущей страницы (не передается для первой страницы)
+     * @param limit количество записей на странице
+     * @param expand books — добавить к каждому автору первую страницу его книг
+     * @param booksLimit количество книг каждого автора при expand=books
+     * @return страница авторов с курсором следующей страницы
+     */
+    @GetMapping
+    @Operation(summary = "Получить список авторов",
+            description = "Возвращает авторов, упорядоченных по ID, и курсор следующей страницы (не более 1000 записей). " +
+                    "С expand=books к каждому автору добавляется первая страница его книг (не более 100)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список авторов успешно получен"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор")
+    })
+    public ResponseEntity<CursorPageResponse<AuthorResponse>> getAuthorsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String expand,
+            @RequestParam(required = false) Integer booksLimit) {
+        log.info("Получен запрос на выдачу страницы авторов");
+        return ResponseEntity.ok(authorService.getAuthorsPage(cursor, limit, EXPAND_BOOKS.equals(expand), booksLimit));
+    }
+
+    /**
+     * Получает GET запрос на постраничную выдачу списка авторов по номеру страницы.
+     * Запрос с параметром ids обрабатывается выдачей по списку ID, даже если передан и номер страницы.
      * @param page номер страницы
      * @param size количество записей на странице
+     * @param expand books — добавить к каждому автору первую страницу его книг
+     * @param booksLimit количество книг каждого автора при expand=books
      * @return страница авторов
      */
-    @GetMapping
-    @Operation(summary = "Получить список авторов", description = "Возвращает список авторов с пагинацией")
+    @GetMapping(params = {"page", "!ids"})
+    @Operation(summary = "Получить страницу авторов по номеру",
+            description = "Возвращает страницу авторов по номеру без подсчета общего количества " +
+                    "(по умолчанию 5, не более 1000 записей)")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Список авторов успешно получен")
     })
-    public ResponseEntity<Page<Author>> getAuthors(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "5") int size) {
-        log.info("Получен запрос на выдачу страницы авторов");
-        Page<Author> authors = authorService.getAuthors(page, size);
-        return ResponseEntity.ok(authors);
+    public ResponseEntity<SlicePageResponse<AuthorResponse>> getAuthors(
+            @RequestParam int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String expand,
+            @RequestParam(required = false) Integer booksLimit) {
+        log.info("Получен запрос на выдачу страницы авторов по номеру {}", page);
+        return ResponseEntity.ok(authorService.getAuthors(page, size, EXPAND_BOOKS.equals(expand), booksLimit));
+    }
+
+    /**
+     * Получает GET запрос на выдачу авторов по списку идентификаторов.
+     * @param ids идентификаторы авторов
+     * @return найденные авторы в порядке запрошенных ID и ID ненайденных авторов
+     */
+    @GetMapping(params = "ids")
+    @Operation(summary = "Получить авторов по списку ID",
+            description = "Возвращает авторов по списку ID (не более 100) одним запросом к базе в порядке запрошенных ID " +
+                    "и список ID, авторы с которыми не найдены")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Авторы успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Некорректный список ID")
+    })
+    public ResponseEntity<MultiGetResponse<AuthorResponse>> getAuthorsByIds(
+            @RequestParam @Size(min = 1, max = BookService.MAX_IDS) List<Long> ids) {
+        log.info("Получен запрос на выдачу авторов по списку идентификаторов");
+        return ResponseEntity.ok(authorService.getAuthorsByIds(ids));
+    }
+
+    /**
+     * Получает GET запрос на выдачу авторов, добавленных после водяной метки.
+     * @param since водяная метка из предыдущего ответа (не передается при первой синхронизации)
+     * @param limit максимальное количество авторов в ответе
+     * @return новые авторы и метка для следующего запроса
+     */
+    @GetMapping("/delta")
+    @Operation(summary = "Изменения авторов после водяной метки",
+            description = "Возвращает авторов, добавленных после метки, в порядке добавления (не более 5000 записей), " +
+                    "и метку для следующего запроса")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Изменения успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Некорректная водяная метка"),
+            @ApiResponse(responseCode = "410", description = "Водяная метка устарела, нужна полная синхронизация")
+    })
+    public ResponseEntity<DeltaResponse<AuthorDeltaResponse>> getAuthorChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу изменений авторов");
+        return ResponseEntity.ok(deltaSyncService.getAuthorChanges(since, limit));
+    }
+
+    /**
+     * Получает GET запрос на выгрузку всех авторов.
+     * @param format формат выгрузки
+     * @param gzip сжимать ли выгрузку
+     * @param response HTTP-ответ, в который записывается выгрузка
+     * @throws IOException при ошибке записи ответа
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузка всех авторов", description = "Выгружает всех авторов в порядке ID в формате CSV или NDJSON, " +
+            "при gzip=true — в виде сжатого файла")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Авторы успешно выгружены"),
+            @ApiResponse(responseCode = "400", description = "Неизвестный формат выгрузки")
+    })
+    public void exportAuthors(@RequestParam(defaultValue = "CSV") CatalogFormat format,
+                              @RequestParam(defaultValue = "false") boolean gzip,
+                              HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на выгрузку всех авторов");
+        response.setContentType(format.getMediaType(gzip));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(format.getFileName("authors", gzip)).build().toString());
+        catalogExportService.exportAuthors(format, gzip, response.getOutputStream());
+    }
+
+    /**
+     * Получает GET запрос на выдачу страницы книг автора с курсорной пагинацией.
+     * @param id идентификатор автора
+     * @param cursor курсор предыдущей страницы (не передается для первой страницы)
+     * @param limit количество записей на странице
+     * @return страница книг автора с курсором следующей страницы
+     */
+    @GetMapping("/{id}/books")
+    @Operation(summary = "Получить книги автора",
+            description = "Возвращает книги автора, упорядоченные по ID, и курсор следующей страницы (не более 1000 записей)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Книги автора успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор"),
+            @ApiResponse(responseCode = "404", description = "Автор не найден")
+    })
+    public ResponseEntity<CursorPageResponse<BookResponse>> getAuthorBooks(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу книг автора {}", id);
+        return ResponseEntity.ok(bookService.getAuthorBooks(id, cursor, limit));
     }
 
     /**
      * Получает GET запрос на выдачу автора по идентификатору.
+     * Если переданный в If-None-Match ETag совпадает с текущей версией автора, возвращается 304.
      * @param id идентификатор автора
-     * @return автор
+     * @param ifNoneMatch ETag автора, сохраненного у клиента
+     * @return автор с ETag его версии
      */
     @GetMapping("/{id}")
-    @Operation(summary = "Получить автора по ID", description = "Возвращает автора по указанному ID")
+    @Operation(summary = "Получить автора по ID", description = "Возвращает автора по указанному ID с ETag его версии")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Автор найден"),
+            @ApiResponse(responseCode = "304", description = "Автор не изменился с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Автор не найден")
     })
-    public ResponseEntity<Author> getAuthorById(@PathVariable Long id) {
+    public ResponseEntity<Author> getAuthorById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Получен запрос на выдачу данных об авторе по идентификатору");
-        Optional<Author> author = authorService.getAuthorById(id);
-        return author.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        if (ifNoneMatch != null) {
+            long version = authorService.getAuthorVersion(id);
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build();
+            }
+        }
+        Author author = authorService.getAuthorById(id);
+        return ResponseEntity.ok().eTag(ETags.of(author.getVersion())).body(author);
     }
 }
\ No newline at end of file
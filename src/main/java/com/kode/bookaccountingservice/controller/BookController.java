@@ -1,31 +1,71 @@
 package com.kode.bookaccountingservice.controller;
 
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookImportResponse;
 import com.kode.bookaccountingservice.dto.BookRequest;
 import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.BookSearchRequest;
+import com.kode.bookaccountingservice.dto.BookSearchResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import com.kode.bookaccountingservice.service.BookImportService;
 import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.DeltaSyncService;
+import com.kode.bookaccountingservice.service.SuggestService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * REST-контроллер для обработки запросов на книги.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/books")
 @Tag(name = "Books", description = "API для управления книгами")
 public class BookController {
     private final BookService bookService;
-    public BookController(BookService bookService) {
+    private final BookImportService bookImportService;
+    private final SuggestService suggestService;
+    private final DeltaSyncService deltaSyncService;
+    private final CatalogExportService catalogExportService;
+    private final ObjectMapper objectMapper;
+
+    public BookController(BookService bookService, BookImportService bookImportService, SuggestService suggestService,
+                          DeltaSyncService deltaSyncService, CatalogExportService catalogExportService,
+                          ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.suggestService = suggestService;
+        this.deltaSyncService = deltaSyncService;
+        this.catalogExportService = catalogExportService;
+        this.objectMapper = objectMapper;
     }
 
     private static final Logger log = LoggerFactory.getLogger(BookController.class);
@@ -48,11 +88,83 @@ public class BookController {
     }
 
     /**
-     * Получает GET запрос на выдачу списка всех книг.
-     * @return список книг
+     * Получает POST запрос на пакетное добавление книг в виде JSON-массива.
+     * @param bookRequests список объектов дто
+     * @return результаты добавления по каждой книге
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Добавляет книги пакетом", description = "Добавляет книги из JSON-массива и возвращает результат по каждой книге")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Импорт выполнен, результаты по каждой книге в ответе"),
+            @ApiResponse(responseCode = "400", description = "Тело запроса не является JSON-массивом")
+    })
+    public ResponseEntity<BookImportResponse> importBooks(@RequestBody List<BookRequest> bookRequests) {
+        log.info("Получен запрос на пакетное добавление {} книг", bookRequests.size());
+        return ResponseEntity.ok(bookImportService.importBooks(bookRequests));
+    }
+
+    /**
+     * Получает POST запрос на пакетное добавление книг в формате NDJSON.
+     * Поток обрабатывается по мере чтения, без загрузки всего тела в память.
+     * @param request HTTP-запрос с потоком NDJSON
+     * @return результаты добавления по каждой книге
+     * @throws IOException при ошибке чтения запроса
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Добавляет книги потоком NDJSON", description = "Добавляет книги из потока NDJSON и возвращает результат по каждой книге")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Импорт выполнен, результаты по каждой книге в ответе")
+    })
+    public ResponseEntity<BookImportResponse> importBooksNdjson(HttpServletRequest request) throws IOException {
+        log.info("Получен запрос на пакетное добавление книг в формате NDJSON");
+        return ResponseEntity.ok(bookImportService.importNdjson(request.getInputStream()));
+    }
+
+    /**
+     * Получает GET запрос на постраничную выдачу книг.
+     * @param cursor курсор следующей страницы из предыдущего ответа
+     * @param limit количество записей на странице
+     * @return страница книг
      */
     @GetMapping
-    @Operation(summary = "Получить список всех книг", description = "Возвращает список всех книг")
+    @Operation(summary = "Получить страницу книг", description = "Возвращает книги, упорядоченные по ID, с курсорной пагинацией")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница книг успешно получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор")
+    })
+    public ResponseEntity<CursorPageResponse<BookResponse>> getBooksPage(
+            @Parameter(description = "Курсор из поля next предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Количество записей на странице (не более 1000)") @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу страницы книг");
+        return ResponseEntity.ok(bookService.getBooksPage(cursor, limit));
+    }
+
+    /**
+     * Получает GET запрос на выдачу книг по списку идентификаторов.
+     * @param ids идентификаторы книг
+     * @return найденные книги в порядке запрошенных ID и ID ненайденных книг
+     */
+    @GetMapping(params = "ids")
+    @Operation(summary = "Получить книги по списку ID",
+            description = "Возвращает книги по списку ID (не более 100) одним запросом к базе в порядке запрошенных ID " +
+                    "и список ID, книги с которыми не найдены")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Книги успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Некорректный список ID")
+    })
+    public ResponseEntity<MultiGetResponse<BookResponse>> getBooksByIds(
+            @Parameter(description = "ID книг через запятую") @RequestParam @Size(min = 1, max = BookService.MAX_IDS) List<Long> ids) {
+        log.info("Получен запрос на выдачу книг по списку идентификаторов");
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
+    }
+
+    /**
+     * Получает GET запрос на выдачу списка всех книг одним ответом.
+     * Загружает всю таблицу в память, поэтому доступен только при явном указании all=true.
+     * @return список книг
+     */
+    @GetMapping(params = "all=true")
+    @Operation(summary = "Получить список всех книг", description = "Возвращает список всех книг одним ответом (требуется all=true)")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Список книг успешно получен")
     })
@@ -63,25 +175,149 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
 
+    /**
+     * Получает GET запрос на потоковую выдачу всех книг.
+     * JSON-массив пишется в ответ по мере чтения строк из базы данных.
+     * @param response HTTP-ответ
+     * @throws IOException при ошибке записи ответа
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Потоковая выдача всех книг", description = "Возвращает JSON-массив всех книг, формируемый по мере чтения из базы")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список книг успешно выдан")
+    })
+    public void streamAllBooks(HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на потоковую выдачу всех книг");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            bookService.streamAllBooks(book -> {
+                try {
+                    generator.writeObject(book);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Получает GET запрос на выгрузку всех книг.
+     * Выгрузка формируется базой данных и передается по мере чтения, поэтому ошибка в процессе выгрузки
+     * обрывает уже начатый ответ.
+     * @param format формат выгрузки
+     * @param gzip сжимать ли выгрузку
+     * @param response HTTP-ответ, в который записывается выгрузка
+     * @throws IOException при ошибке записи ответа
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузка всех книг", description = "Выгружает все книги в порядке ID в формате CSV или NDJSON, " +
+            "при gzip=true — в виде сжатого файла")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Книги успешно выгружены"),
+            @ApiResponse(responseCode = "400", description = "Неизвестный формат выгрузки")
+    })
+    public void exportBooks(
+            @Parameter(description = "Формат выгрузки") @RequestParam(defaultValue = "CSV") CatalogFormat format,
+            @Parameter(description = "Сжимать ли выгрузку") @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на выгрузку всех книг");
+        response.setContentType(format.getMediaType(gzip));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(format.getFileName("books", gzip)).build().toString());
+        catalogExportService.exportBooks(format, gzip, response.getOutputStream());
+    }
+
+    /**
+     * Получает GET запрос на поиск книг.
+     * @param searchRequest условия поиска
+     * @param cursor курсор следующей страницы из предыдущего ответа
+     * @param limit количество записей на странице
+     * @return страница найденных книг с количеством книг по жанрам и десятилетиям
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Поиск книг", description = "Ищет книги по наименованию, жанру, годам публикации и автору с курсорной пагинацией")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поиск выполнен"),
+            @ApiResponse(responseCode = "400", description = "Некорректные условия поиска или курсор")
+    })
+    public ResponseEntity<BookSearchResponse> searchBooks(
+            @Valid @ParameterObject BookSearchRequest searchRequest,
+            @Parameter(description = "Курсор из поля next предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Количество записей на странице (не более 1000)") @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на поиск книг");
+        return ResponseEntity.ok(bookService.searchBooks(searchRequest, cursor, limit));
+    }
+
+    /**
+     * Получает GET запрос на подсказки при вводе наименования книги или имени автора.
+     * @param q начало наименования
+     * @param limit максимальное количество подсказок
+     * @return подсказки в алфавитном порядке
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Подсказки при вводе", description = "Возвращает книги и авторов, наименование которых начинается с введенной строки")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подсказки успешно получены")
+    })
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @Parameter(description = "Начало наименования книги или имени автора") @RequestParam String q,
+            @Parameter(description = "Максимальное количество подсказок (не более 50)") @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на подсказки при вводе");
+        return ResponseEntity.ok(suggestService.suggest(q, limit));
+    }
+
+    /**
+     * Получает GET запрос на выдачу книг, добавленных, измененных или удаленных после водяной метки.
+     * @param since водяная метка из предыдущего ответа (не передается при первой синхронизации)
+     * @param limit максимальное количество книг в ответе
+     * @return изменения книг и метка для следующего запроса
+     */
+    @GetMapping("/delta")
+    @Operation(summary = "Изменения книг после водяной метки",
+            description = "Возвращает книги, измененные после метки, в порядке изменения, включая удаленные (deleted=true), " +
+                    "и метку для следующего запроса. Без метки возвращает все неудаленные книги")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Изменения успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Некорректная водяная метка"),
+            @ApiResponse(responseCode = "410", description = "Водяная метка устарела, нужна полная синхронизация")
+    })
+    public ResponseEntity<DeltaResponse<BookDeltaResponse>> getBookChanges(
+            @Parameter(description = "Водяная метка из поля watermark предыдущего ответа") @RequestParam(required = false) String since,
+            @Parameter(description = "Количество записей в ответе (не более 5000)") @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу изменений книг");
+        return ResponseEntity.ok(deltaSyncService.getBookChanges(since, limit));
+    }
+
     /**
      * Получает GET запрос на выдачу книги по идентификатору.
+     * Если переданный в If-None-Match ETag совпадает с текущей версией книги,
+     * возвращается 304 без чтения и сериализации самой книги.
      * @param id идентификатор книги
-     * @return книга
+     * @param ifNoneMatch ETag книги, сохраненной у клиента
+     * @return книга с ETag ее версии
      */
     @GetMapping("/{id}")
-    @Operation(summary = "Получить книгу по ID", description = "Возвращает книгу по указанному ID")
+    @Operation(summary = "Получить книгу по ID", description = "Возвращает книгу по указанному ID с ETag ее версии")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Книга найдена"),
+            @ApiResponse(responseCode = "304", description = "Книга не изменилась с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Книги с таким ID нет в базе")
     })
-    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id) {
-        log.info("Получен запрос на выдачу данных о книге #" + id);
-        Optional<BookResponse> bookResponse = bookService.getBookById(id);
-        if (bookResponse.isPresent()) {
-            return ResponseEntity.ok(bookResponse.get());
-        } else {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<BookResponse> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Получен запрос на выдачу данных о книге #{}", id);
+        if (ifNoneMatch != null) {
+            long version = bookService.getBookVersion(id);
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build();
+            }
         }
+        BookResponse book = bookService.getBookById(id);
+        return ResponseEntity.ok().eTag(ETags.of(book.getVersion())).body(book);
     }
 
     /**
@@ -90,15 +326,20 @@ public class BookController {
      * @param bookRequest объект дто
      */
     @PutMapping("/{id}")
-    @Operation(summary = "Обновить книгу", description = "Обновляет данные книги по указанному ID")
+    @Operation(summary = "Обновить книгу", description = "Обновляет данные книги по указанному ID; с заголовком If-Match — только если книга не изменилась")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Данные о книге успешно обновлены"),
+            @ApiResponse(responseCode = "200", description = "Данные о книге успешно обновлены, ETag новой версии в ответе"),
             @ApiResponse(responseCode = "400", description = "Некорректные входные данные"),
-            @ApiResponse(responseCode = "404", description = "Книги с таким ID нет в базе")
+            @ApiResponse(responseCode = "404", description = "Книги с таким ID нет в базе"),
+            @ApiResponse(responseCode = "409", description = "Книга изменена параллельным запросом"),
+            @ApiResponse(responseCode = "412", description = "Версия книги не совпадает с ETag из If-Match")
     })
-    public void updateBook(@PathVariable Long id,@Valid @RequestBody BookRequest bookRequest) {
-        log.info("Получен запрос на обновление данных о книге #" + id);
-        bookService.updateBook(id, bookRequest);
+    public ResponseEntity<Void> updateBook(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @Valid @RequestBody BookRequest bookRequest) {
+        log.info("Получен запрос на обновление данных о книге #{}", id);
+        long version = bookService.updateBook(id, bookRequest, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(version)).build();
     }
 
     /**
@@ -112,7 +353,7 @@ public class BookController {
             @ApiResponse(responseCode = "404", description = "Книги с таким ID нет в базе")
     })
     public void deleteBook(@PathVariable Long id) {
-        log.info("Получен запрос на удаление данных о книге #" + id);
+        log.info("Получен запрос на удаление данных о книге #{}", id);
         bookService.deleteBook(id);
     }
 }
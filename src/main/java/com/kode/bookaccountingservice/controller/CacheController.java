@@ -0,0 +1,58 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kode.bookaccountingservice.dto.CacheStatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST-контроллер для выдачи статистики кэшей.
+ */
+@RestController
+@RequestMapping("/cache")
+@Tag(name = "Cache", description = "API для просмотра статистики кэшей")
+public class CacheController {
+    private final CacheManager cacheManager;
+
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Получает GET запрос на выдачу статистики включенных кэшей.
+     * @return список со статистикой по каждому кэшу
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Получить статистику кэшей", description = "Возвращает попадания, промахи и вытеснения по включенным кэшам")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    public ResponseEntity<List<CacheStatsResponse>> getStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats cacheStats = caffeineCache.getNativeCache().stats();
+                stats.add(new CacheStatsResponse(name, caffeineCache.getNativeCache().estimatedSize(),
+                        cacheStats.hitCount(), cacheStats.missCount(), cacheStats.hitRate(), cacheStats.evictionCount()));
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,76 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.CatalogLoadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST-контроллер для массовой загрузки каталога.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/books")
+@Tag(name = "Admin", description = "API для массовой загрузки каталога")
+public class CatalogLoadController {
+    private final CatalogLoadService catalogLoadService;
+
+    public CatalogLoadController(CatalogLoadService catalogLoadService) {
+        this.catalogLoadService = catalogLoadService;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogLoadController.class);
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    /**
+     * Получает POST запрос на массовую загрузку книг в формате CSV.
+     * Тело запроса передается в базу данных по мере чтения, без загрузки в память.
+     * @param request HTTP-запрос с CSV
+     * @return итоги загрузки и отклоненные записи
+     * @throws IOException при ошибке чтения запроса
+     */
+    @PostMapping(value = "/load", consumes = TEXT_CSV_VALUE)
+    @Operation(summary = "Массовая загрузка книг из CSV", description = "Загружает книги из CSV с заголовком " +
+            "title,author,year,genre; отсутствующие авторы добавляются по имени")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка выполнена, отклоненные записи в ответе"),
+            @ApiResponse(responseCode = "400", description = "Некорректный заголовок или формат CSV")
+    })
+    public ResponseEntity<CatalogLoadResponse> loadBooksCsv(HttpServletRequest request) throws IOException {
+        log.info("Получен запрос на массовую загрузку книг в формате CSV");
+        return ResponseEntity.ok(catalogLoadService.loadBooks(CatalogFormat.CSV, request.getInputStream()));
+    }
+
+    /**
+     * Получает POST запрос на массовую загрузку книг в формате NDJSON.
+     * @param request HTTP-запрос с потоком NDJSON
+     * @return итоги загрузки и отклоненные записи
+     * @throws IOException при ошибке чтения запроса
+     */
+    @PostMapping(value = "/load", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Массовая загрузка книг из NDJSON", description = "Загружает книги из потока NDJSON " +
+            "с полями title, author, year и genre; отсутствующие авторы добавляются по имени")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Загрузка выполнена, отклоненные записи в ответе"),
+            @ApiResponse(responseCode = "400", description = "Данные не удается разобрать")
+    })
+    public ResponseEntity<CatalogLoadResponse> loadBooksNdjson(HttpServletRequest request) throws IOException {
+        log.info("Получен запрос на массовую загрузку книг в формате NDJSON");
+        return ResponseEntity.ok(catalogLoadService.loadBooks(CatalogFormat.NDJSON, request.getInputStream()));
+    }
+}
@@ -0,0 +1,107 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.ChangeEventResponse;
+import com.kode.bookaccountingservice.dto.ChangeFeedResponse;
+import com.kode.bookaccountingservice.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST-контроллер для выдачи журнала изменений книг и авторов.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/changes")
+@Tag(name = "Changes", description = "API для получения журнала изменений")
+public class ChangeController {
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeController.class);
+
+    /**
+     * Наибольшее время ожидания событий; меньше времени ожидания асинхронного запроса по умолчанию (30 с).
+     */
+    static final int MAX_WAIT_SECONDS = 25;
+
+    /**
+     * Время жизни SSE-подключения; клиент переподключается с заголовком Last-Event-ID.
+     */
+    private static final Duration SSE_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * Получает GET запрос на выдачу событий после указанного номера.
+     * Если событий нет и задано время ожидания, ответ откладывается до публикации событий (long polling).
+     * @param since номер последнего полученного события
+     * @param limit максимальное количество событий
+     * @param wait время ожидания в секундах (ограничивается сверху {@value #MAX_WAIT_SECONDS})
+     * @return события и номер для следующего запроса
+     */
+    @GetMapping
+    @Operation(summary = "Получить журнал изменений", description = "Возвращает события после указанного номера, при необходимости ожидая их публикации")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "События успешно выданы (пустой список, если время ожидания истекло)")
+    })
+    public CompletableFuture<ChangeFeedResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(defaultValue = "0") int wait) {
+        log.info("Получен запрос на выдачу журнала изменений после {}", since);
+        ChangeFeedResponse changes = changeFeedService.getChanges(since, limit);
+        if (!changes.getItems().isEmpty() || wait <= 0) {
+            return CompletableFuture.completedFuture(changes);
+        }
+        return changeFeedService.awaitChanges(since, limit)
+                .completeOnTimeout(new ChangeFeedResponse(List.of(), since), Math.min(wait, MAX_WAIT_SECONDS),
+                        TimeUnit.SECONDS);
+    }
+
+    /**
+     * Получает GET запрос на подписку на журнал изменений (Server-Sent Events).
+     * Идентификатор каждого события — его номер, поэтому переподключение продолжает поток с места разрыва.
+     * @param since номер последнего полученного события
+     * @param lastEventId номер последнего полученного события при переподключении (заменяет since)
+     * @return поток событий
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Подписаться на журнал изменений", description = "Передает события по мере публикации в формате Server-Sent Events")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подписка оформлена")
+    })
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Получен запрос на подписку на журнал изменений");
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT.toMillis());
+        ChangeFeedService.Subscription subscription = changeFeedService.subscribe(
+                lastEventId != null ? lastEventId : since, changes -> {
+                    try {
+                        for (ChangeEventResponse event : changes.getItems()) {
+                            emitter.send(SseEmitter.event().id(String.valueOf(event.getSequence())).data(event));
+                        }
+                    } catch (IOException e) {
+                        emitter.completeWithError(e);
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        emitter.onCompletion(() -> changeFeedService.unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        return emitter;
+    }
+}
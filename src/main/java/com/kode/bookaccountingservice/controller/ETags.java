@@ -0,0 +1,50 @@
+package com.kode.bookaccountingservice.controller;
+
+/**
+ * Построение и сравнение ETag по версии записи.
+ * ETag сильный: одна и та же версия всегда соответствует одинаковому представлению записи.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Проверяет заголовок If-None-Match (слабое сравнение: префикс W/ не учитывается).
+     * @return true, если один из перечисленных ETag соответствует версии или указан «*»
+     */
+    static boolean matchesIfNoneMatch(String header, long version) {
+        String expected = of(version);
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(expected) || trimmed.equals("W/" + expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Извлекает версию из заголовка If-Match.
+     * @return null, если заголовок не указан или равен «*»; -1, если заголовок не соответствует
+     * ни одной версии (слабый ETag, список или некорректное значение) — такое условие не выполняется никогда
+     */
+    static Long expectedVersion(String header) {
+        if (header == null || header.trim().equals("*")) {
+            return null;
+        }
+        String tag = header.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
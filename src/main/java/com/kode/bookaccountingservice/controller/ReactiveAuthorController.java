@@ -0,0 +1,160 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.AuthorDeltaResponse;
+import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.dto.SlicePageResponse;
+import com.kode.bookaccountingservice.service.AuthorService;
+import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.DeltaSyncService;
+import com.kode.bookaccountingservice.service.ReactiveAuthorService;
+import com.kode.bookaccountingservice.service.ReactiveBookService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Неблокирующий REST-контроллер для запросов на авторов (профиль reactive).
+ * Обслуживает те же маршруты, что и {@link AuthorController}; страницы по номеру, авторы с книгами (expand=books),
+ * авторы по списку ID и изменения после водяной метки выдаются прежними сервисами в отдельном пуле потоков.
+ * Выгрузка выполняется через JDBC (R2DBC не поддерживает COPY TO STDOUT) и передается буферами по мере чтения.
+ */
+@RestController
+@RequestMapping("/authors")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthorController {
+    private final ReactiveAuthorService reactiveAuthorService;
+    private final ReactiveBookService reactiveBookService;
+    private final AuthorService authorService;
+    private final DeltaSyncService deltaSyncService;
+    private final CatalogExportService catalogExportService;
+
+    public ReactiveAuthorController(ReactiveAuthorService reactiveAuthorService, ReactiveBookService reactiveBookService,
+                                    AuthorService authorService, DeltaSyncService deltaSyncService,
+                                    CatalogExportService catalogExportService) {
+        this.reactiveAuthorService = reactiveAuthorService;
+        this.reactiveBookService = reactiveBookService;
+        this.authorService = authorService;
+        this.deltaSyncService = deltaSyncService;
+        this.catalogExportService = catalogExportService;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveAuthorController.class);
+
+    private static final String EXPAND_BOOKS = "books";
+
+    @PostMapping
+    public Mono<Void> addAuthor(@Valid @RequestBody AuthorRequest authorRequest) {
+        log.info("Получен запрос на добавление данных о новом авторе");
+        return reactiveAuthorService.addAuthor(authorRequest);
+    }
+
+    @GetMapping
+    public Mono<CursorPageResponse<AuthorResponse>> getAuthorsPage(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) String expand,
+                                                                   @RequestParam(required = false) Integer booksLimit) {
+        log.info("Получен запрос на выдачу страницы авторов");
+        if (EXPAND_BOOKS.equals(expand)) {
+            return Mono.fromCallable(() -> authorService.getAuthorsPage(cursor, limit, true, booksLimit))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        return reactiveAuthorService.getAuthorsPage(cursor, limit);
+    }
+
+    @GetMapping(params = {"page", "!ids"})
+    public Mono<SlicePageResponse<AuthorResponse>> getAuthors(@RequestParam int page,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(required = false) String expand,
+                                                              @RequestParam(required = false) Integer booksLimit) {
+        log.info("Получен запрос на выдачу страницы авторов по номеру {}", page);
+        return Mono.fromCallable(() -> authorService.getAuthors(page, size, EXPAND_BOOKS.equals(expand), booksLimit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<MultiGetResponse<AuthorResponse>> getAuthorsByIds(
+            @RequestParam @Size(min = 1, max = BookService.MAX_IDS) List<Long> ids) {
+        log.info("Получен запрос на выдачу авторов по списку идентификаторов");
+        return Mono.fromCallable(() -> authorService.getAuthorsByIds(ids))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/delta")
+    public Mono<DeltaResponse<AuthorDeltaResponse>> getAuthorChanges(@RequestParam(required = false) String since,
+                                                                     @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу изменений авторов");
+        return Mono.fromCallable(() -> deltaSyncService.getAuthorChanges(since, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportAuthors(@RequestParam(defaultValue = "CSV") CatalogFormat format,
+                                                  @RequestParam(defaultValue = "false") boolean gzip,
+                                                  ServerHttpResponse response) {
+        log.info("Получен запрос на выгрузку всех авторов");
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                catalogExportService.exportAuthors(format, gzip, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, response.bufferFactory(), Schedulers.boundedElastic()::schedule));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType(gzip)))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(format.getFileName("authors", gzip)).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/{id}/books")
+    public Mono<CursorPageResponse<BookResponse>> getAuthorBooks(@PathVariable Long id,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу книг автора {}", id);
+        return reactiveBookService.getAuthorBooks(id, cursor, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<AuthorResponse>> getAuthorById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Получен запрос на выдачу данных об авторе по идентификатору");
+        if (ifNoneMatch == null) {
+            return authorResponse(id);
+        }
+        return reactiveAuthorService.getAuthorVersion(id)
+                .flatMap(version -> ETags.matchesIfNoneMatch(ifNoneMatch, version)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build())
+                        : authorResponse(id));
+    }
+
+    private Mono<ResponseEntity<AuthorResponse>> authorResponse(Long id) {
+        return reactiveAuthorService.getAuthorById(id)
+                .map(author -> ResponseEntity.ok().eTag(ETags.of(author.getVersion())).body(author));
+    }
+}
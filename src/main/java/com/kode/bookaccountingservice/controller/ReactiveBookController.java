@@ -0,0 +1,207 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookImportResponse;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.BookSearchRequest;
+import com.kode.bookaccountingservice.dto.BookSearchResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import com.kode.bookaccountingservice.service.BookImportService;
+import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.DeltaSyncService;
+import com.kode.bookaccountingservice.service.ReactiveBookService;
+import com.kode.bookaccountingservice.service.SuggestService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Неблокирующий REST-контроллер для запросов на книги (профиль reactive).
+ * Обслуживает те же маршруты, что и {@link BookController}. Чтение и изменение отдельных книг
+ * выполняется через R2DBC; поиск, пакетный импорт, выдача по списку ID и изменений после водяной метки выполняются
+ * прежними сервисами в отдельном пуле потоков. Выгрузка выполняется через JDBC (R2DBC не поддерживает
+ * COPY TO STDOUT) и передается буферами по мере чтения.
+ */
+@RestController
+@RequestMapping("/books")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookController {
+    private final ReactiveBookService reactiveBookService;
+    private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final SuggestService suggestService;
+    private final DeltaSyncService deltaSyncService;
+    private final CatalogExportService catalogExportService;
+
+    public ReactiveBookController(ReactiveBookService reactiveBookService, BookService bookService,
+                                  BookImportService bookImportService, SuggestService suggestService,
+                                  DeltaSyncService deltaSyncService, CatalogExportService catalogExportService) {
+        this.reactiveBookService = reactiveBookService;
+        this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.suggestService = suggestService;
+        this.deltaSyncService = deltaSyncService;
+        this.catalogExportService = catalogExportService;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveBookController.class);
+
+    @PostMapping
+    public Mono<Void> addBook(@Valid @RequestBody BookRequest bookRequest) {
+        log.info("Получен запрос на добавление данных о новой книге");
+        return reactiveBookService.addBook(bookRequest);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BookImportResponse>> importBooks(@RequestBody List<BookRequest> bookRequests) {
+        log.info("Получен запрос на пакетное добавление {} книг", bookRequests.size());
+        return Mono.fromCallable(() -> ResponseEntity.ok(bookImportService.importBooks(bookRequests)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Получает POST запрос на пакетное добавление книг в формате NDJSON.
+     * В отличие от {@link BookController}, строка с некорректным JSON отклоняет весь запрос.
+     * @param bookRequests поток объектов дто
+     * @return результаты добавления по каждой книге
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<BookImportResponse>> importBooksNdjson(@RequestBody Flux<BookRequest> bookRequests) {
+        log.info("Получен запрос на пакетное добавление книг в формате NDJSON");
+        return bookRequests.collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(requests -> ResponseEntity.ok(bookImportService.importBooks(requests)));
+    }
+
+    @GetMapping
+    public Mono<CursorPageResponse<BookResponse>> getBooksPage(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу страницы книг");
+        return reactiveBookService.getBooksPage(cursor, limit);
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<MultiGetResponse<BookResponse>> getBooksByIds(
+            @RequestParam @Size(min = 1, max = BookService.MAX_IDS) List<Long> ids) {
+        log.info("Получен запрос на выдачу книг по списку идентификаторов");
+        return Mono.fromCallable(() -> bookService.getBooksByIds(ids))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(params = "all=true")
+    public Mono<List<BookResponse>> getAllBooks() {
+        log.info("Получен запрос на выдачу списка всех книг");
+        return reactiveBookService.streamAllBooks().collectList();
+    }
+
+    /**
+     * Получает GET запрос на потоковую выдачу всех книг в виде JSON-массива или NDJSON (по заголовку Accept).
+     * Книги читаются из базы данных по мере того, как клиент принимает ответ.
+     * @return поток книг
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookResponse> streamAllBooks() {
+        log.info("Получен запрос на потоковую выдачу всех книг");
+        return reactiveBookService.streamAllBooks();
+    }
+
+    @GetMapping("/search")
+    public Mono<BookSearchResponse> searchBooks(@Valid BookSearchRequest searchRequest,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на поиск книг");
+        return Mono.fromCallable(() -> bookService.searchBooks(searchRequest, cursor, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/suggest")
+    public List<SuggestionResponse> suggest(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на подсказки при вводе");
+        return suggestService.suggest(q, limit);
+    }
+
+    @GetMapping("/delta")
+    public Mono<DeltaResponse<BookDeltaResponse>> getBookChanges(@RequestParam(required = false) String since,
+                                                                 @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос на выдачу изменений книг");
+        return Mono.fromCallable(() -> deltaSyncService.getBookChanges(since, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportBooks(@RequestParam(defaultValue = "CSV") CatalogFormat format,
+                                                  @RequestParam(defaultValue = "false") boolean gzip,
+                                                  ServerHttpResponse response) {
+        log.info("Получен запрос на выгрузку всех книг");
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                catalogExportService.exportBooks(format, gzip, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, response.bufferFactory(), Schedulers.boundedElastic()::schedule));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType(gzip)))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(format.getFileName("books", gzip)).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookResponse>> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Получен запрос на выдачу данных о книге #{}", id);
+        if (ifNoneMatch == null) {
+            return bookResponse(id);
+        }
+        return reactiveBookService.getBookVersion(id)
+                .flatMap(version -> ETags.matchesIfNoneMatch(ifNoneMatch, version)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build())
+                        : bookResponse(id));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Void>> updateBook(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @Valid @RequestBody BookRequest bookRequest) {
+        log.info("Получен запрос на обновление данных о книге #{}", id);
+        return reactiveBookService.updateBook(id, bookRequest, ETags.expectedVersion(ifMatch))
+                .map(version -> ResponseEntity.ok().eTag(ETags.of(version)).build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteBook(@PathVariable Long id) {
+        log.info("Получен запрос на удаление данных о книге #{}", id);
+        return reactiveBookService.deleteBook(id);
+    }
+
+    private Mono<ResponseEntity<BookResponse>> bookResponse(Long id) {
+        return reactiveBookService.getBookById(id)
+                .map(book -> ResponseEntity.ok().eTag(ETags.of(book.getVersion())).body(book));
+    }
+}
@@ -0,0 +1,61 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.service.CatalogFormat;
+import com.kode.bookaccountingservice.service.CatalogLoadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+
+/**
+ * Неблокирующий REST-контроллер для массовой загрузки каталога (профиль reactive).
+ * Обслуживает те же маршруты, что и {@link CatalogLoadController}: загрузка выполняется через JDBC
+ * (R2DBC не поддерживает COPY FROM STDIN) в отдельном пуле потоков, тело запроса читается по мере поступления.
+ */
+@RestController
+@RequestMapping("/admin/books")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCatalogLoadController {
+    private final CatalogLoadService catalogLoadService;
+
+    public ReactiveCatalogLoadController(CatalogLoadService catalogLoadService) {
+        this.catalogLoadService = catalogLoadService;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCatalogLoadController.class);
+
+    private static final int DEMAND = 16;
+
+    @PostMapping(value = "/load", consumes = CatalogLoadController.TEXT_CSV_VALUE)
+    public Mono<CatalogLoadResponse> loadBooksCsv(@RequestBody Flux<DataBuffer> body) {
+        log.info("Получен запрос на массовую загрузку книг в формате CSV");
+        return load(CatalogFormat.CSV, body);
+    }
+
+    @PostMapping(value = "/load", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<CatalogLoadResponse> loadBooksNdjson(@RequestBody Flux<DataBuffer> body) {
+        log.info("Получен запрос на массовую загрузку книг в формате NDJSON");
+        return load(CatalogFormat.NDJSON, body);
+    }
+
+    private Mono<CatalogLoadResponse> load(CatalogFormat format, Flux<DataBuffer> body) {
+        return Mono.fromCallable(() -> {
+                    try (InputStream inputStream = DataBufferUtils.subscriberInputStream(body, DEMAND)) {
+                        return catalogLoadService.loadBooks(format, inputStream);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
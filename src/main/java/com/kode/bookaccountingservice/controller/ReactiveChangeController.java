@@ -0,0 +1,62 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.ChangeEventResponse;
+import com.kode.bookaccountingservice.dto.ChangeFeedResponse;
+import com.kode.bookaccountingservice.service.ChangeFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Неблокирующий REST-контроллер для выдачи журнала изменений (профиль reactive).
+ * Обслуживает те же маршруты, что и {@link ChangeController}.
+ */
+@RestController
+@RequestMapping("/changes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveChangeController {
+    private final ChangeFeedService changeFeedService;
+
+    public ReactiveChangeController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveChangeController.class);
+
+    @GetMapping
+    public Mono<ChangeFeedResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(defaultValue = "0") int wait) {
+        log.info("Получен запрос на выдачу журнала изменений после {}", since);
+        return Mono.fromCallable(() -> changeFeedService.getChanges(since, limit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(changes -> !changes.getItems().isEmpty() || wait <= 0
+                        ? Mono.just(changes)
+                        : Mono.fromFuture(() -> changeFeedService.awaitChanges(since, limit), true)
+                                .timeout(Duration.ofSeconds(Math.min(wait, ChangeController.MAX_WAIT_SECONDS)),
+                                        Mono.just(new ChangeFeedResponse(List.of(), since))));
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEventResponse>> streamChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Получен запрос на подписку на журнал изменений");
+        return Flux.<ChangeFeedResponse>create(sink -> {
+                    ChangeFeedService.Subscription subscription = changeFeedService.subscribe(
+                            lastEventId != null ? lastEventId : since, sink::next);
+                    sink.onDispose(() -> changeFeedService.unsubscribe(subscription));
+                })
+                .concatMapIterable(ChangeFeedResponse::getItems)
+                .map(event -> ServerSentEvent.builder(event).id(String.valueOf(event.getSequence())).build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * DTO для выдачи добавленного автора при синхронизации каталога
+ */
+public class AuthorDeltaResponse {
+    @Schema(description = "ID автора", example = "1")
+    private Long id;
+    @Schema(description = "Имя автора", example = "Александр Пушкин")
+    private String name;
+    @Schema(description = "Год рождения автора", example = "1799", nullable = true)
+    private Integer birthYear;
+    @Schema(description = "Время изменения")
+    private Instant updatedAt;
+
+    public AuthorDeltaResponse() {
+    }
+
+    public AuthorDeltaResponse(Long id, String name, Integer birthYear, Instant updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.birthYear = birthYear;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getBirthYear() {
+        return birthYear;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
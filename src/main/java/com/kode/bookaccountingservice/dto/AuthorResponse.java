@@ -1,5 +1,7 @@
 package com.kode.bookaccountingservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
@@ -10,8 +12,26 @@ public class AuthorResponse {
     private Long id;
     @Schema(description = "Имя автора", example = "Пушкин")
     private String name;
-    @Schema(description = "Год рождения", example = "1799")
-    private int birthYear;
+    @Schema(description = "Год рождения", example = "1799", nullable = true)
+    private Integer birthYear;
+    @Schema(description = "Первая страница книг автора; заполняется только при expand=books")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CursorPageResponse<BookResponse> books;
+    private Long version;
+
+    public AuthorResponse() {
+    }
+
+    public AuthorResponse(Long id, String name, Integer birthYear) {
+        this.id = id;
+        this.name = name;
+        this.birthYear = birthYear;
+    }
+
+    public AuthorResponse(Long id, String name, Integer birthYear, Long version) {
+        this(id, name, birthYear);
+        this.version = version;
+    }
 
     public Long getId() {
         return id;
@@ -29,11 +49,27 @@ public class AuthorResponse {
         this.name = name;
     }
 
-    public int getBirthYear() {
+    public Integer getBirthYear() {
         return birthYear;
     }
 
-    public void setBirthYear(int birthYear) {
+    public void setBirthYear(Integer birthYear) {
         this.birthYear = birthYear;
     }
+
+    public CursorPageResponse<BookResponse> getBooks() {
+        return books;
+    }
+
+    public void setBooks(CursorPageResponse<BookResponse> books) {
+        this.books = books;
+    }
+
+    /**
+     * @return версия записи автора; заполняется только при выдаче автора по ID и в JSON не выводится
+     */
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
 }
@@ -0,0 +1,67 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * DTO для выдачи добавленной, измененной или удаленной книги при синхронизации каталога
+ */
+public class BookDeltaResponse {
+    @Schema(description = "ID книги", example = "1")
+    private Long id;
+    @Schema(description = "Название книги", example = "Капитанская дочка")
+    private String title;
+    @Schema(description = "ID автора книги", example = "1")
+    private Long authorId;
+    @Schema(description = "Год публикации книги", example = "1836")
+    private Integer year;
+    @Schema(description = "Жанр книги", example = "Исторический роман")
+    private String genre;
+    @Schema(description = "Книга удалена; клиент удаляет ее из своей копии каталога", example = "false")
+    private boolean deleted;
+    @Schema(description = "Время изменения")
+    private Instant updatedAt;
+
+    public BookDeltaResponse() {
+    }
+
+    public BookDeltaResponse(Long id, String title, Long authorId, Integer year, String genre, boolean deleted,
+                             Instant updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.authorId = authorId;
+        this.year = year;
+        this.genre = genre;
+        this.deleted = deleted;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
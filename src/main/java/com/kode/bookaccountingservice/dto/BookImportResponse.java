@@ -0,0 +1,35 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи итогов пакетного импорта книг
+ */
+public class BookImportResponse {
+    @Schema(description = "Количество добавленных книг", example = "998")
+    private final int created;
+    @Schema(description = "Количество отклоненных книг", example = "2")
+    private final int rejected;
+    @Schema(description = "Результаты по каждой книге в порядке входных данных")
+    private final List<BookImportResult> results;
+
+    public BookImportResponse(List<BookImportResult> results) {
+        this.results = results;
+        this.created = (int) results.stream().filter(r -> r.getStatus() == BookImportResult.Status.CREATED).count();
+        this.rejected = results.size() - created;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<BookImportResult> getResults() {
+        return results;
+    }
+}
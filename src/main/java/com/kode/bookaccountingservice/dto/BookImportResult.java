@@ -0,0 +1,52 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * DTO для выдачи результата импорта одной книги
+ */
+public class BookImportResult {
+    public enum Status {CREATED, REJECTED}
+
+    @Schema(description = "Порядковый номер книги во входных данных (с 0)", example = "0")
+    private final int index;
+    @Schema(description = "Результат импорта", example = "CREATED")
+    private final Status status;
+    @Schema(description = "ID созданной книги", example = "1", nullable = true)
+    private final Long id;
+    @Schema(description = "Ошибки по полям, если книга отклонена", nullable = true)
+    private final Map<String, String> errors;
+
+    private BookImportResult(int index, Status status, Long id, Map<String, String> errors) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.errors = errors;
+    }
+
+    public static BookImportResult created(int index, Long id) {
+        return new BookImportResult(index, Status.CREATED, id, null);
+    }
+
+    public static BookImportResult rejected(int index, Map<String, String> errors) {
+        return new BookImportResult(index, Status.REJECTED, null, errors);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+}
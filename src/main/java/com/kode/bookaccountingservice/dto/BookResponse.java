@@ -1,5 +1,6 @@
 package com.kode.bookaccountingservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
@@ -16,6 +17,23 @@ public class BookResponse {
     private int year;
     @Schema(description = "Жанр книги", example = "Исторический роман")
     private String genre;
+    private Long version;
+
+    public BookResponse() {
+    }
+
+    public BookResponse(Long id, String title, Long authorId, Integer year, String genre) {
+        this.id = id;
+        this.title = title;
+        this.authorId = authorId;
+        this.year = year;
+        this.genre = genre;
+    }
+
+    public BookResponse(Long id, String title, Long authorId, Integer year, String genre, Long version) {
+        this(id, title, authorId, year, genre);
+        this.version = version;
+    }
 
     public Long getId() {
         return id;
@@ -56,4 +74,12 @@ public class BookResponse {
     public void setGenre(String genre) {
         this.genre = genre;
     }
+
+    /**
+     * @return версия записи книги; заполняется только при выдаче книги по ID и в JSON не выводится
+     */
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
 }
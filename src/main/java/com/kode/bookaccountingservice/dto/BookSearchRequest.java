@@ -0,0 +1,86 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO с условиями поиска книг. Незаполненные условия не применяются.
+ */
+public class BookSearchRequest {
+
+    /**
+     * Способ сравнения наименования книги со строкой поиска
+     */
+    public enum TitleMatch {
+        PREFIX, CONTAINS
+    }
+
+    @Size(max = 255, message = "Строка поиска не должна превышать 255 символов")
+    @Schema(description = "Строка поиска по наименованию без учета регистра", example = "дочка")
+    private String title;
+
+    @Schema(description = "Способ сравнения наименования: PREFIX — начинается с, CONTAINS — содержит", defaultValue = "CONTAINS")
+    private TitleMatch match = TitleMatch.CONTAINS;
+
+    @Schema(description = "Жанр книги", example = "Исторический роман")
+    private String genre;
+
+    @Schema(description = "Год публикации не раньше", example = "1800")
+    private Integer yearFrom;
+
+    @Schema(description = "Год публикации не позже", example = "1899")
+    private Integer yearTo;
+
+    @Positive(message = "Значение должно быть положительным")
+    @Schema(description = "ID автора книги", example = "1")
+    private Long authorId;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public TitleMatch getMatch() {
+        return match;
+    }
+
+    public void setMatch(TitleMatch match) {
+        this.match = match;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+}
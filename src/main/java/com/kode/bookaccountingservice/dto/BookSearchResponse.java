@@ -0,0 +1,30 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи страницы результатов поиска книг с количеством найденных книг по жанрам и десятилетиям
+ */
+@Schema(description = "Страница результатов поиска книг")
+public class BookSearchResponse extends CursorPageResponse<BookResponse> {
+    @Schema(description = "Количество найденных книг по жанрам; заполняется только для первой страницы", nullable = true)
+    private final List<FacetCount> genres;
+    @Schema(description = "Количество найденных книг по десятилетиям года публикации; заполняется только для первой страницы", nullable = true)
+    private final List<FacetCount> decades;
+
+    public BookSearchResponse(List<BookResponse> items, String next, List<FacetCount> genres, List<FacetCount> decades) {
+        super(items, next);
+        this.genres = genres;
+        this.decades = decades;
+    }
+
+    public List<FacetCount> getGenres() {
+        return genres;
+    }
+
+    public List<FacetCount> getDecades() {
+        return decades;
+    }
+}
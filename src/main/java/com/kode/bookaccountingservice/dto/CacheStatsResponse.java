@@ -0,0 +1,54 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO для выдачи статистики кэша
+ */
+public class CacheStatsResponse {
+    @Schema(description = "Имя кэша", example = "books")
+    private final String name;
+    @Schema(description = "Приблизительное количество записей", example = "120")
+    private final long size;
+    @Schema(description = "Количество попаданий", example = "950")
+    private final long hitCount;
+    @Schema(description = "Количество промахов", example = "50")
+    private final long missCount;
+    @Schema(description = "Доля попаданий", example = "0.95")
+    private final double hitRate;
+    @Schema(description = "Количество вытеснений", example = "0")
+    private final long evictionCount;
+
+    public CacheStatsResponse(String name, long size, long hitCount, long missCount, double hitRate, long evictionCount) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+}
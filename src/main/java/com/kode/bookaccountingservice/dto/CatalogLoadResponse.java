@@ -0,0 +1,51 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи итогов массовой загрузки книг
+ */
+@Schema(description = "Итоги массовой загрузки книг")
+public class CatalogLoadResponse {
+    @Schema(description = "Количество полученных записей", example = "1000000")
+    private final long received;
+    @Schema(description = "Количество добавленных книг", example = "999998")
+    private final long created;
+    @Schema(description = "Количество добавленных авторов", example = "1200")
+    private final long authorsCreated;
+    @Schema(description = "Количество отклоненных записей", example = "2")
+    private final long rejected;
+    @Schema(description = "Отклоненные записи (не более 1000) в порядке входных данных")
+    private final List<BookImportResult> rejectedRows;
+
+    public CatalogLoadResponse(long received, long created, long authorsCreated, long rejected,
+                               List<BookImportResult> rejectedRows) {
+        this.received = received;
+        this.created = created;
+        this.authorsCreated = authorsCreated;
+        this.rejected = rejected;
+        this.rejectedRows = rejectedRows;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getAuthorsCreated() {
+        return authorsCreated;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<BookImportResult> getRejectedRows() {
+        return rejectedRows;
+    }
+}
@@ -0,0 +1,62 @@
+package com.kode.bookaccountingservice.dto;
+
+import com.kode.bookaccountingservice.entity.ChangeEvent;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * DTO для выдачи события журнала изменений
+ */
+public class ChangeEventResponse {
+    @Schema(description = "Порядковый номер события", example = "42")
+    private Long sequence;
+    @Schema(description = "Тип измененной записи", example = "BOOK")
+    private CatalogChangedEvent.Entity entity;
+    @Schema(description = "ID измененной записи", example = "1")
+    private Long id;
+    @Schema(description = "Вид изменения", example = "SAVED")
+    private ChangeEvent.Operation operation;
+    @Schema(description = "Наименование книги или имя автора; null для удаленной записи", example = "Капитанская дочка", nullable = true)
+    private String name;
+    @Schema(description = "Время изменения")
+    private Instant createdAt;
+
+    public ChangeEventResponse() {
+    }
+
+    public ChangeEventResponse(Long sequence, CatalogChangedEvent.Entity entity, Long id, ChangeEvent.Operation operation,
+                               String name, Instant createdAt) {
+        this.sequence = sequence;
+        this.entity = entity;
+        this.id = id;
+        this.operation = operation;
+        this.name = name;
+        this.createdAt = createdAt;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public CatalogChangedEvent.Entity getEntity() {
+        return entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ChangeEvent.Operation getOperation() {
+        return operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,29 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи порции журнала изменений
+ */
+@Schema(description = "События журнала изменений после указанного номера")
+public class ChangeFeedResponse {
+    @Schema(description = "События в порядке номеров")
+    private final List<ChangeEventResponse> items;
+    @Schema(description = "Номер, с которого запрашивать следующую порцию (параметр since)", example = "42")
+    private final long since;
+
+    public ChangeFeedResponse(List<ChangeEventResponse> items, long since) {
+        this.items = items;
+        this.since = since;
+    }
+
+    public List<ChangeEventResponse> getItems() {
+        return items;
+    }
+
+    public long getSince() {
+        return since;
+    }
+}
@@ -0,0 +1,29 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи страницы записей с курсорной (keyset) пагинацией
+ */
+@Schema(description = "Страница записей с курсором на следующую страницу")
+public class CursorPageResponse<T> {
+    @Schema(description = "Записи текущей страницы")
+    private final List<T> items;
+    @Schema(description = "Курсор следующей страницы или null, если страница последняя", example = "MTA", nullable = true)
+    private final String next;
+
+    public CursorPageResponse(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
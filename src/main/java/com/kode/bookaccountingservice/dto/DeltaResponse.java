@@ -0,0 +1,36 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи порции изменений каталога после водяной метки
+ */
+@Schema(description = "Изменения после водяной метки и метка для следующего запроса")
+public class DeltaResponse<T> {
+    @Schema(description = "Измененные записи в порядке изменения")
+    private final List<T> items;
+    @Schema(description = "Водяная метка для следующего запроса (параметр since)", example = "MTcwMDAwMDAwMDAwMDAwMDox")
+    private final String watermark;
+    @Schema(description = "Есть ли еще изменения; если да, следующую порцию можно запросить сразу", example = "false")
+    private final boolean hasMore;
+
+    public DeltaResponse(List<T> items, String watermark, boolean hasMore) {
+        this.items = items;
+        this.watermark = watermark;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getWatermark() {
+        return watermark;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
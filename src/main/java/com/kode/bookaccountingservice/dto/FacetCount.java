@@ -0,0 +1,31 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO для выдачи количества записей с одним значением признака (фасета)
+ */
+@Schema(description = "Количество найденных книг с одним значением признака")
+public class FacetCount {
+    @Schema(description = "Значение признака", example = "Роман")
+    private final String value;
+    @Schema(description = "Количество книг", example = "42")
+    private final long count;
+
+    public FacetCount(String value, Long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    public FacetCount(Integer value, Long count) {
+        this(value == null ? null : value.toString(), count);
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
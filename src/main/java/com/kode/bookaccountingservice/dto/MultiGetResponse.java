@@ -0,0 +1,29 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи записей по списку идентификаторов
+ */
+@Schema(description = "Найденные записи в порядке запрошенных ID и ID, которые не найдены")
+public class MultiGetResponse<T> {
+    @Schema(description = "Найденные записи в порядке запрошенных ID (повторы ID не дублируются)")
+    private final List<T> items;
+    @Schema(description = "Запрошенные ID, записи с которыми не найдены", example = "[42]")
+    private final List<Long> missingIds;
+
+    public MultiGetResponse(List<T> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+}
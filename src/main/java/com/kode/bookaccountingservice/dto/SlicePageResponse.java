@@ -0,0 +1,43 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO для выдачи страницы записей по номеру без подсчета общего количества записей
+ */
+@Schema(description = "Страница записей по номеру")
+public class SlicePageResponse<T> {
+    @Schema(description = "Записи текущей страницы")
+    private final List<T> items;
+    @Schema(description = "Номер страницы (начинается с 0)", example = "0")
+    private final int page;
+    @Schema(description = "Количество записей на странице", example = "50")
+    private final int size;
+    @Schema(description = "Есть ли следующая страница", example = "true")
+    private final boolean hasNext;
+
+    public SlicePageResponse(List<T> items, int page, int size, boolean hasNext) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+}
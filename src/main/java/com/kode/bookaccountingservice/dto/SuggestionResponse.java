@@ -0,0 +1,42 @@
+package com.kode.bookaccountingservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO для выдачи подсказки при вводе наименования книги или имени автора
+ */
+@Schema(description = "Подсказка: книга или автор, наименование которых начинается со строки запроса")
+public class SuggestionResponse {
+
+    /**
+     * Тип подсказки
+     */
+    public enum Type {
+        BOOK, AUTHOR
+    }
+
+    @Schema(description = "Тип подсказки", example = "BOOK")
+    private final Type type;
+    @Schema(description = "Идентификатор книги или автора", example = "1")
+    private final Long id;
+    @Schema(description = "Наименование книги или имя автора", example = "Капитанская дочка")
+    private final String text;
+
+    public SuggestionResponse(Type type, Long id, String text) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
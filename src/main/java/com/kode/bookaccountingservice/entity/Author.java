@@ -1,12 +1,29 @@
 package com.kode.bookaccountingservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 @Entity
-@Table(name = "authors")
+@Table(name = "authors", uniqueConstraints = @UniqueConstraint(name = "uk_authors_name", columnNames = "name"),
+        indexes = @Index(name = "idx_authors_updated_at", columnList = "updated_at, id"))
+@SqlResultSetMapping(name = Author.RESPONSE_MAPPING, classes = @ConstructorResult(targetClass = AuthorResponse.class, columns = {
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "name", type = String.class),
+        @ColumnResult(name = "birth_year", type = Integer.class),
+        @ColumnResult(name = "version", type = Long.class)}))
 public class Author {
+    /**
+     * Отображение строк authors, выбранных SQL-запросом, в {@link AuthorResponse} с версией
+     */
+    public static final String RESPONSE_MAPPING = "Author.response";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -16,12 +33,28 @@ public class Author {
     @Column (name = "birth_year")
     private Integer birthYear;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Время добавления по часам базы данных (значение столбца по умолчанию); авторы не изменяются
+     */
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("current_timestamp")
+    private Instant updatedAt;
+
 
 
     public Long getId() {
         return id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
@@ -30,11 +63,11 @@ public class Author {
         this.name = name;
     }
 
-    public int getBirthYear() {
+    public Integer getBirthYear() {
         return birthYear;
     }
 
-    public void setBirthYear(int birthYear) {
+    public void setBirthYear(Integer birthYear) {
         this.birthYear = birthYear;
     }
 
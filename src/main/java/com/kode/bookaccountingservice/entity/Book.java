@@ -1,19 +1,64 @@
 package com.kode.bookaccountingservice.entity;
 
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
 import jakarta.persistence.*;
-
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CurrentTimestamp;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.generator.EventType;
+
+import java.time.Instant;
+
+/**
+ * Книга. Удаленная книга остается в таблице с признаком deleted (tombstone), чтобы клиенты,
+ * синхронизирующие каталог, узнали об удалении; запросы к сущности удаленные книги не видят.
+ */
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "uk_books_title", columnList = "title"),
+        @Index(name = "idx_books_author_id", columnList = "author_id, id"),
+        @Index(name = "idx_books_updated_at", columnList = "updated_at, id")})
+@SQLRestriction("deleted = false")
+@SqlResultSetMapping(name = Book.DELTA_MAPPING, classes = @ConstructorResult(targetClass = BookDeltaResponse.class, columns = {
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "title", type = String.class),
+        @ColumnResult(name = "author_id", type = Long.class),
+        @ColumnResult(name = "year", type = Integer.class),
+        @ColumnResult(name = "genre", type = String.class),
+        @ColumnResult(name = "deleted", type = Boolean.class),
+        @ColumnResult(name = "updated_at", type = Instant.class)}))
+@SqlResultSetMapping(name = Book.RESPONSE_MAPPING, classes = @ConstructorResult(targetClass = BookResponse.class, columns = {
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "title", type = String.class),
+        @ColumnResult(name = "author_id", type = Long.class),
+        @ColumnResult(name = "year", type = Integer.class),
+        @ColumnResult(name = "genre", type = String.class),
+        @ColumnResult(name = "version", type = Long.class)}))
 public class Book {
+    /**
+     * Отображение строк books, выбранных SQL-запросом, в {@link BookDeltaResponse}
+     */
+    public static final String DELTA_MAPPING = "Book.delta";
+    /**
+     * Отображение строк books, выбранных SQL-запросом, в {@link BookResponse} с версией
+     */
+    public static final String RESPONSE_MAPPING = "Book.response";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
+    /**
+     * Наименование уникально среди неудаленных книг (частичный индекс uk_books_title в миграциях)
+     */
     @Column(nullable = false)
     private String title;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", referencedColumnName = "id", nullable = false)
     private Author author;
 
@@ -23,10 +68,35 @@ public class Book {
     @Column(nullable = false)
     private String genre;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Время последнего изменения по часам базы данных: при вставке — значение столбца по умолчанию,
+     * при обновлении — current_timestamp в том же запросе.
+     */
+    @Column(name = "updated_at", nullable = false, insertable = false)
+    @ColumnDefault("current_timestamp")
+    @CurrentTimestamp(event = EventType.UPDATE, source = SourceType.DB)
+    private Instant updatedAt;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("false")
+    private boolean deleted;
+
     public Long getId() {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -0,0 +1,85 @@
+package com.kode.bookaccountingservice.entity;
+
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Запись журнала изменений (outbox). Добавляется в той же транзакции, что и изменение книги или автора;
+ * порядковый номер sequence назначается при публикации и задает порядок выдачи событий потребителям.
+ */
+@Entity
+@Table(name = "change_events")
+public class ChangeEvent {
+
+    /**
+     * Вид изменения
+     */
+    public enum Operation {
+        SAVED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_event_seq")
+    @SequenceGenerator(name = "change_event_seq", sequenceName = "change_event_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CatalogChangedEvent.Entity entity;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    private String name;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(unique = true)
+    private Long sequence;
+
+    public ChangeEvent() {}
+
+    public ChangeEvent(CatalogChangedEvent event) {
+        this.entity = event.getEntity();
+        this.entityId = event.getId();
+        this.operation = event.isDeleted() ? Operation.DELETED : Operation.SAVED;
+        this.name = event.getName();
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public CatalogChangedEvent.Entity getEntity() {
+        return entity;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+}
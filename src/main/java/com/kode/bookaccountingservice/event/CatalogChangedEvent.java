@@ -0,0 +1,58 @@
+package com.kode.bookaccountingservice.event;
+
+/**
+ * Событие об изменении наименования книги или имени автора в каталоге.
+ * Публикуется сервисами внутри транзакции; слушатели получают его после фиксации.
+ */
+public class CatalogChangedEvent {
+
+    /**
+     * Тип измененной записи
+     */
+    public enum Entity {
+        BOOK, AUTHOR
+    }
+
+    private final Entity entity;
+    private final long id;
+    private final String name;
+
+    private CatalogChangedEvent(Entity entity, long id, String name) {
+        this.entity = entity;
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * @return событие о добавлении или изменении записи
+     */
+    public static CatalogChangedEvent saved(Entity entity, long id, String name) {
+        return new CatalogChangedEvent(entity, id, name);
+    }
+
+    /**
+     * @return событие об удалении записи
+     */
+    public static CatalogChangedEvent deleted(Entity entity, long id) {
+        return new CatalogChangedEvent(entity, id, null);
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return наименование книги или имя автора; null, если запись удалена
+     */
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDeleted() {
+        return name == null;
+    }
+}
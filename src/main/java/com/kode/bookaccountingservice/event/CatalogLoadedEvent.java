@@ -0,0 +1,43 @@
+package com.kode.bookaccountingservice.event;
+
+/**
+ * Событие о массовой загрузке книг и авторов.
+ * Загрузка не публикует {@link CatalogChangedEvent} по каждой записи, а сообщает диапазоны ID добавленных записей;
+ * в диапазон могут попасть и записи, добавленные одновременно с загрузкой другими запросами.
+ */
+public class CatalogLoadedEvent {
+
+    private final Long firstBookId;
+    private final Long lastBookId;
+    private final Long firstAuthorId;
+    private final Long lastAuthorId;
+
+    public CatalogLoadedEvent(Long firstBookId, Long lastBookId, Long firstAuthorId, Long lastAuthorId) {
+        this.firstBookId = firstBookId;
+        this.lastBookId = lastBookId;
+        this.firstAuthorId = firstAuthorId;
+        this.lastAuthorId = lastAuthorId;
+    }
+
+    /**
+     * @return наименьший ID добавленной книги; null, если книги не добавлены
+     */
+    public Long getFirstBookId() {
+        return firstBookId;
+    }
+
+    public Long getLastBookId() {
+        return lastBookId;
+    }
+
+    /**
+     * @return наименьший ID добавленного автора; null, если авторы не добавлены
+     */
+    public Long getFirstAuthorId() {
+        return firstAuthorId;
+    }
+
+    public Long getLastAuthorId() {
+        return lastAuthorId;
+    }
+}
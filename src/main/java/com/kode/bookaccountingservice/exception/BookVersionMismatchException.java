@@ -0,0 +1,5 @@
+package com.kode.bookaccountingservice.exception;
+
+public class BookVersionMismatchException extends RuntimeException {
+    public BookVersionMismatchException(String message) {super(message);}
+}
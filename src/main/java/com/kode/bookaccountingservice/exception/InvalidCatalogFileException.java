@@ -0,0 +1,5 @@
+package com.kode.bookaccountingservice.exception;
+
+public class InvalidCatalogFileException extends RuntimeException {
+    public InvalidCatalogFileException(String message) {super(message);}
+}
@@ -0,0 +1,5 @@
+package com.kode.bookaccountingservice.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {super(message);}
+}
@@ -3,14 +3,18 @@ package com.kode.bookaccountingservice.exception;
 import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -29,6 +33,12 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException e){
+        log.error("Нарушено ограничение целостности данных", e);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Данные конфликтуют с уже существующей записью");
+    }
+
     @ExceptionHandler(AuthorNotFoundException.class)
     public ResponseEntity<String> handleAuthorNotFound(AuthorNotFoundException e){
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -39,10 +49,45 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException e){
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCatalogFileException.class)
+    public ResponseEntity<String> handleInvalidCatalogFile(InvalidCatalogFileException e){
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(WatermarkExpiredException.class)
+    public ResponseEntity<String> handleWatermarkExpired(WatermarkExpiredException e){
+        return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(BookVersionMismatchException.class)
+    public ResponseEntity<String> handleBookVersionMismatch(BookVersionMismatchException e){
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException e){
+        log.warn("Запись изменена параллельным запросом", e);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Запись была изменена другим запросом, повторите попытку");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, Object> handleValidationErrors(MethodArgumentNotValidException ex) {
+        return validationErrors(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public Map<String, Object> handleValidationErrors(WebExchangeBindException ex) {
+        return validationErrors(ex.getBindingResult());
+    }
+
+    private Map<String, Object> validationErrors(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
-        for (FieldError error : ex.getBindingResult().getFieldErrors()) {
+        for (FieldError error : bindingResult.getFieldErrors()) {
             errors.put(error.getField(), error.getDefaultMessage());
         }
 
@@ -0,0 +1,5 @@
+package com.kode.bookaccountingservice.exception;
+
+public class WatermarkExpiredException extends RuntimeException {
+    public WatermarkExpiredException(String message) {super(message);}
+}
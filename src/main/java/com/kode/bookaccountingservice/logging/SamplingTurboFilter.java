@@ -0,0 +1,61 @@
+package com.kode.bookaccountingservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Фильтр выборочного логирования сообщений уровня INFO.
+ * Для логгеров с заданными префиксами пропускает в среднем одно сообщение из {@code rate};
+ * остальные отбрасываются до форматирования, поэтому не создают объектов.
+ * Сообщения других уровней и других логгеров не затрагиваются.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private int rate = 1;
+    private List<String> loggers = List.of();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (rate <= 1 || level != Level.INFO || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String loggerName) {
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * @param rate пропускать одно сообщение из rate; 1 и меньше отключает выборку
+     */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * @param loggers префиксы имен логгеров через запятую
+     */
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+}
@@ -1,11 +1,89 @@
 package com.kode.bookaccountingservice.repository;
 
+import com.kode.bookaccountingservice.dto.AuthorDeltaResponse;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import com.kode.bookaccountingservice.entity.Author;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
-    boolean existsByName(String name);
+    /**
+     * Добавляет автора одним запросом, полагаясь на уникальность имени в базе данных.
+     * @return ID добавленного автора или пустой Optional, если автор с таким именем уже существует
+     */
+    @Query(value = "insert into authors (id, name, birth_year) values (nextval('author_seq'), :name, :birthYear) " +
+            "on conflict (name) do nothing returning id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("name") String name, @Param("birthYear") Integer birthYear);
+
+    /**
+     * Получает авторов по списку ID одним запросом; текст запроса не зависит от количества ID,
+     * поэтому подготовленный запрос переиспользуется.
+     * @return найденные авторы в произвольном порядке
+     */
+    @NativeQuery("select * from authors where id = any(:ids)")
+    List<Author> findAllByIds(@Param("ids") Long[] ids);
+
+    /**
+     * Получает авторов по списку ID одним запросом сразу в {@link AuthorResponse}, без загрузки сущностей.
+     * @return найденные авторы в произвольном порядке
+     */
+    @NativeQuery(value = "select id, name, birth_year, version from authors where id = any(:ids)",
+            sqlResultSetMapping = Author.RESPONSE_MAPPING)
+    List<AuthorResponse> findResponsesByIds(@Param("ids") Long[] ids);
+
+    @Query("select a.version from Author a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.kode.bookaccountingservice.dto.AuthorResponse(a.id, a.name, a.birthYear) " +
+            "from Author a where a.id > :afterId order by a.id")
+    List<AuthorResponse> findResponsesAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Получает страницу авторов по номеру; для определения следующей страницы читается одна лишняя запись,
+     * запрос общего количества не выполняется.
+     */
+    @Query("select new com.kode.bookaccountingservice.dto.AuthorResponse(a.id, a.name, a.birthYear) " +
+            "from Author a order by a.id")
+    Slice<AuthorResponse> findResponses(Pageable pageable);
+
+    @Query("select a.id from Author a where a.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.kode.bookaccountingservice.dto.SuggestionResponse(" +
+            "com.kode.bookaccountingservice.dto.SuggestionResponse$Type.AUTHOR, a.id, a.name) from Author a")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<SuggestionResponse> streamSuggestions();
+
+    @Query("select new com.kode.bookaccountingservice.dto.SuggestionResponse(" +
+            "com.kode.bookaccountingservice.dto.SuggestionResponse$Type.AUTHOR, a.id, a.name) from Author a " +
+            "where a.id between :fromId and :toId")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<SuggestionResponse> streamSuggestions(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Получает авторов, добавленных после водяной метки, в порядке (updated_at, id).
+     * @param before граница времени изменения (не включительно): более новые изменения еще не выдаются
+     */
+    @Query("select new com.kode.bookaccountingservice.dto.AuthorDeltaResponse(a.id, a.name, a.birthYear, a.updatedAt) " +
+            "from Author a where (a.updatedAt, a.id) > (:since, :afterId) and a.updatedAt < :before " +
+            "order by a.updatedAt, a.id")
+    List<AuthorDeltaResponse> findChangedAfter(@Param("since") Instant since, @Param("afterId") long afterId,
+                                               @Param("before") Instant before, Limit limit);
 }
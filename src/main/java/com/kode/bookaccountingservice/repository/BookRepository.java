@@ -1,8 +1,134 @@
 package com.kode.bookaccountingservice.repository;
 
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
 import com.kode.bookaccountingservice.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
-    boolean existsByTitle(String name);
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Репозиторий книг. Запросы чтения возвращают {@link BookResponse} напрямую:
+ * идентификатор автора берется из столбца books.author_id, без загрузки сущностей.
+ */
+public interface BookRepository extends JpaRepository<Book, Long>, BookSearchRepository {
+    /**
+     * Добавляет книгу одним запросом, полагаясь на уникальность наименования в базе данных.
+     * Строка вставляется, только если автор с указанным ID существует.
+     * Наименование уникально только среди неудаленных книг, поэтому условие on conflict повторяет условие индекса.
+     * @return ID добавленной книги или пустой Optional, если наименование занято или автор не найден
+     */
+    @Query(value = "insert into books (id, title, author_id, year, genre) " +
+            "select nextval('book_seq'), :title, a.id, :year, :genre from authors a where a.id = :authorId " +
+            "on conflict (title) where deleted = false do nothing returning id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("title") String title, @Param("authorId") Long authorId,
+                                  @Param("year") Integer year, @Param("genre") String genre);
+
+    @Query("select new com.kode.bookaccountingservice.dto.BookResponse(b.id, b.title, b.author.id, b.year, b.genre, b.version) " +
+            "from Book b where b.id = :id")
+    Optional<BookResponse> findResponseById(@Param("id") Long id);
+
+    /**
+     * Получает книги по списку ID одним запросом; текст запроса не зависит от количества ID,
+     * поэтому подготовленный запрос переиспользуется.
+     * @return найденные книги в произвольном порядке
+     */
+    @NativeQuery(value = "select id, title, author_id, year, genre, version from books " +
+            "where id = any(:ids) and deleted = false", sqlResultSetMapping = Book.RESPONSE_MAPPING)
+    List<BookResponse> findResponsesByIds(@Param("ids") Long[] ids);
+
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.kode.bookaccountingservice.dto.BookResponse(b.id, b.title, b.author.id, b.year, b.genre) " +
+            "from Book b order by b.id")
+    List<BookResponse> findAllResponses();
+
+    @Query("select new com.kode.bookaccountingservice.dto.BookResponse(b.id, b.title, b.author.id, b.year, b.genre) " +
+            "from Book b where b.id > :afterId order by b.id")
+    List<BookResponse> findResponsesAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select new com.kode.bookaccountingservice.dto.BookResponse(b.id, b.title, b.author.id, b.year, b.genre) " +
+            "from Book b where b.author.id = :authorId and b.id > :afterId order by b.id")
+    List<BookResponse> findResponsesByAuthorAfter(@Param("authorId") Long authorId, @Param("afterId") long afterId,
+                                                  Limit limit);
+
+    /**
+     * Получает первые книги каждого из авторов одним запросом: книги нумеруются в пределах автора
+     * по возрастанию ID, и от каждого автора берется не больше limit книг.
+     * @return книги, упорядоченные по автору и ID
+     */
+    @Query("select new com.kode.bookaccountingservice.dto.BookResponse(x.id, x.title, x.authorId, x.year, x.genre) " +
+            "from (select b.id as id, b.title as title, b.author.id as authorId, b.year as year, b.genre as genre, " +
+            "row_number() over (partition by b.author.id order by b.id) as position " +
+            "from Book b where b.author.id in :authorIds) x " +
+            "where x.position <= :limit order by x.authorId, x.id")
+    List<BookResponse> findFirstResponsesByAuthors(@Param("authorIds") Collection<Long> authorIds,
+                                                   @Param("limit") int limit);
+
+    @Query("select new com.kode.bookaccountingservice.dto.BookResponse(b.id, b.title, b.author.id, b.year, b.genre) " +
+            "from Book b order by b.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<BookResponse> streamAllResponses();
+
+    @Query("select new com.kode.bookaccountingservice.dto.SuggestionResponse(" +
+            "com.kode.bookaccountingservice.dto.SuggestionResponse$Type.BOOK, b.id, b.title) from Book b")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<SuggestionResponse> streamSuggestions();
+
+    @Query("select new com.kode.bookaccountingservice.dto.SuggestionResponse(" +
+            "com.kode.bookaccountingservice.dto.SuggestionResponse$Type.BOOK, b.id, b.title) from Book b " +
+            "where b.id between :fromId and :toId")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<SuggestionResponse> streamSuggestions(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Помечает книгу удаленной: строка остается в таблице, пока клиенты синхронизации не узнают об удалении.
+     * @return 1, если книга удалена; 0, если книги нет или она уже удалена
+     */
+    @Modifying
+    @Query("update Book b set b.deleted = true, b.updatedAt = instant, b.version = b.version + 1 " +
+            "where b.id = :id and b.deleted = false")
+    int deleteBookById(@Param("id") Long id);
+
+    /**
+     * Получает книги, измененные после водяной метки, в порядке (updated_at, id), включая удаленные.
+     * Запрос написан на SQL, потому что запросы к сущности удаленные книги не видят.
+     * @param since время изменения последней полученной книги
+     * @param afterId ID последней полученной книги
+     * @param before граница времени изменения (не включительно): более новые изменения еще не выдаются
+     * @param withDeleted выдавать ли удаленные книги (при первой синхронизации они не нужны)
+     */
+    @NativeQuery(value = "select id, title, author_id, year, genre, deleted, updated_at from books " +
+            "where (updated_at, id) > (:since, :afterId) and updated_at < :before and (:withDeleted or deleted = false) " +
+            "order by updated_at, id limit :limit", sqlResultSetMapping = Book.DELTA_MAPPING)
+    List<BookDeltaResponse> findChangedAfter(@Param("since") Instant since, @Param("afterId") long afterId,
+                                             @Param("before") Instant before, @Param("withDeleted") boolean withDeleted,
+                                             @Param("limit") int limit);
+
+    /**
+     * Окончательно удаляет книги, помеченные удаленными раньше указанного времени.
+     * @return количество удаленных строк
+     */
+    @Modifying
+    @Query(value = "delete from books where deleted = true and updated_at < :before", nativeQuery = true)
+    int purgeDeletedBefore(@Param("before") Instant before);
+
+    @Query("select b.title from Book b where b.title in :titles")
+    Set<String> findExistingTitles(@Param("titles") Collection<String> titles);
 }
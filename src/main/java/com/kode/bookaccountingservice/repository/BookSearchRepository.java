@@ -0,0 +1,22 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.FacetCount;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+/**
+ * Поиск книг по необязательным условиям. Незаданный параметр (null) условие не ограничивает;
+ * в запрос попадают только заданные условия, чтобы каждый их набор выполнялся по своему индексу.
+ * Наименование сравнивается по lower(title), для которого в базе построен триграммный индекс.
+ */
+public interface BookSearchRepository {
+
+    List<BookResponse> searchResponsesAfter(String titlePattern, String genre, Integer yearFrom, Integer yearTo,
+                                            Long authorId, long afterId, Limit limit);
+
+    List<FacetCount> countByGenre(String titlePattern, String genre, Integer yearFrom, Integer yearTo, Long authorId);
+
+    List<FacetCount> countByDecade(String titlePattern, String genre, Integer yearFrom, Integer yearTo, Long authorId);
+}
@@ -0,0 +1,86 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.FacetCount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Limit;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация поиска книг. Условия вида (:p is null or ...) не подходят: после нескольких выполнений
+ * драйвер переходит на общий план подготовленного запроса, и PostgreSQL перестает использовать
+ * триграммный индекс и индекс (genre, year). Поэтому текст запроса собирается только из заданных условий,
+ * и вариантов запроса не больше, чем наборов условий.
+ */
+class BookSearchRepositoryImpl implements BookSearchRepository {
+
+    private final EntityManager entityManager;
+
+    BookSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<BookResponse> searchResponsesAfter(String titlePattern, String genre, Integer yearFrom, Integer yearTo,
+                                                   Long authorId, long afterId, Limit limit) {
+        SearchFilter filter = new SearchFilter(titlePattern, genre, yearFrom, yearTo, authorId)
+                .add("b.id > :afterId", "afterId", afterId);
+        TypedQuery<BookResponse> query = filter.createQuery(entityManager,
+                "select new com.kode.bookaccountingservice.dto.BookResponse(b.id, b.title, b.author.id, b.year, b.genre) " +
+                        "from Book b", "order by b.id", BookResponse.class);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<FacetCount> countByGenre(String titlePattern, String genre, Integer yearFrom, Integer yearTo,
+                                         Long authorId) {
+        return new SearchFilter(titlePattern, genre, yearFrom, yearTo, authorId).createQuery(entityManager,
+                "select new com.kode.bookaccountingservice.dto.FacetCount(b.genre, count(b)) from Book b",
+                "group by b.genre order by count(b) desc, b.genre", FacetCount.class).getResultList();
+    }
+
+    @Override
+    public List<FacetCount> countByDecade(String titlePattern, String genre, Integer yearFrom, Integer yearTo,
+                                          Long authorId) {
+        return new SearchFilter(titlePattern, genre, yearFrom, yearTo, authorId).createQuery(entityManager,
+                "select new com.kode.bookaccountingservice.dto.FacetCount((b.year / 10) * 10, count(b)) from Book b",
+                "group by (b.year / 10) * 10 order by (b.year / 10) * 10", FacetCount.class).getResultList();
+    }
+
+    /**
+     * Заданные условия поиска и значения их параметров.
+     */
+    private static final class SearchFilter {
+        private final StringBuilder where = new StringBuilder();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        SearchFilter(String titlePattern, String genre, Integer yearFrom, Integer yearTo, Long authorId) {
+            add("lower(b.title) like :titlePattern escape '\\'", "titlePattern", titlePattern);
+            add("b.genre = :genre", "genre", genre);
+            add("b.year >= :yearFrom", "yearFrom", yearFrom);
+            add("b.year <= :yearTo", "yearTo", yearTo);
+            add("b.author.id = :authorId", "authorId", authorId);
+        }
+
+        SearchFilter add(String condition, String name, Object value) {
+            if (value != null) {
+                where.append(where.isEmpty() ? " where " : " and ").append(condition);
+                parameters.put(name, value);
+            }
+            return this;
+        }
+
+        <T> TypedQuery<T> createQuery(EntityManager entityManager, String select, String tail, Class<T> type) {
+            TypedQuery<T> query = entityManager.createQuery(select + where + " " + tail, type);
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.kode.bookaccountingservice.dto.ChangeEventResponse;
+import com.kode.bookaccountingservice.entity.ChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Репозиторий журнала изменений (outbox).
+ */
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    @Query("select new com.kode.bookaccountingservice.dto.ChangeEventResponse(e.sequence, e.entity, e.entityId, " +
+            "e.operation, e.name, e.createdAt) from ChangeEvent e where e.sequence > :since order by e.sequence")
+    List<ChangeEventResponse> findPublishedAfter(@Param("since") long since, Limit limit);
+
+    @Query("select coalesce(max(e.sequence), 0) from ChangeEvent e")
+    long findLastSequence();
+
+    /**
+     * Пытается взять транзакционную advisory-блокировку PostgreSQL; блокировка снимается при завершении транзакции.
+     * @return true, если блокировка получена
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLock(@Param("key") long key);
+
+    /**
+     * Назначает неопубликованным событиям порядковые номера по возрастанию ID, продолжая после последнего номера.
+     * Вызывается только под блокировкой {@link #tryLock}, поэтому номера не повторяются.
+     * @return количество опубликованных событий
+     */
+    @Modifying
+    @Query(value = "update change_events e set sequence = b.next_sequence " +
+            "from (select id, (select coalesce(max(sequence), 0) from change_events) " +
+            "+ row_number() over (order by id) as next_sequence " +
+            "from change_events where sequence is null order by id limit :limit) b " +
+            "where e.id = b.id", nativeQuery = true)
+    int assignSequences(@Param("limit") int limit);
+
+    /**
+     * Удаляет опубликованные события старше указанного времени. Последнее событие сохраняется,
+     * чтобы нумерация продолжалась после него.
+     * @return количество удаленных событий
+     */
+    @Modifying
+    @Query("delete from ChangeEvent e where e.createdAt < :before " +
+            "and e.sequence < (select max(x.sequence) from ChangeEvent x)")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
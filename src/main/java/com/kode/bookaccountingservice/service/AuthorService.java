@@ -1,20 +1,35 @@
 package com.kode.bookaccountingservice.service;
 
+import com.kode.bookaccountingservice.config.CacheConfig;
 import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.dto.SlicePageResponse;
 import com.kode.bookaccountingservice.entity.Author;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
 import com.kode.bookaccountingservice.exception.AuthorAlreadyExistsException;
 import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
 import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Сервис для работы с авторами
@@ -23,57 +38,172 @@ import java.util.Optional;
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestCollapser<Long, Author> authorLoader;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository,
+                         ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                         @Value("${app.lookup.collapse-window:2ms}") Duration collapseWindow) {
         this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        // результат попадает в кэш, поэтому читается с основной базы данных, а не с реплики:
+        // иначе отстающая реплика вернула бы в кэш только что измененную или удаленную запись
+        this.authorLoader = new RequestCollapser<>(ids -> transactionTemplate.execute(status ->
+                BookService.byId(authorRepository.findAllByIds(ids.toArray(Long[]::new)), Author::getId)),
+                collapseWindow, BookService.MAX_IDS);
     }
 
     private final static Logger log = LoggerFactory.getLogger(AuthorService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    /**
+     * Размер страницы по номеру, если он не передан; сохранен прежним для существующих клиентов ?page=
+     */
+    static final int DEFAULT_NUMBERED_PAGE_SIZE = 5;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int DEFAULT_BOOKS_PER_AUTHOR = 10;
+    static final int MAX_BOOKS_PER_AUTHOR = 100;
+
     /**
      * Добавляет нового автора.
      * @param authorRequest данные автора
      */
     @Transactional
     public void addAuthor(AuthorRequest authorRequest){
-        if (authorRepository.existsByName(authorRequest.getName())){
-            String message = "Автор с таким именем уже добавлен в базу";
-            log.error(message);
-            throw new AuthorAlreadyExistsException(message);
+        log.info("Добавление нового автора {}", authorRequest.getName());
+        Long id = authorRepository.insertIfAbsent(authorRequest.getName(), authorRequest.getBirthYear())
+                .orElseThrow(() -> {
+                    String message = "Автор с таким именем уже добавлен в базу";
+                    log.error(message);
+                    return new AuthorAlreadyExistsException(message);
+                });
+        log.info("Автор добавлен с ID {}", id);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.AUTHOR, id,
+                authorRequest.getName()));
+    }
+
+    /**
+     * Получает страницу авторов, упорядоченных по ID, начиная после курсора.
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value #MAX_PAGE_SIZE})
+     * @param expandBooks добавить к каждому автору первую страницу его книг
+     * @param booksLimit количество книг каждого автора (ограничивается сверху {@value #MAX_BOOKS_PER_AUTHOR})
+     * @return страница авторов с курсором следующей страницы
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuthorResponse> getAuthorsPage(String cursor, Integer limit, boolean expandBooks,
+                                                             Integer booksLimit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = pageSize(limit);
+        log.info("Получение страницы авторов после ID {}", afterId);
+        List<AuthorResponse> authors = authorRepository.findResponsesAfter(afterId, Limit.of(size + 1));
+        String next = null;
+        if (authors.size() > size) {
+            authors = authors.subList(0, size);
+            next = CursorCodec.encode(authors.get(size - 1).getId());
+        }
+        if (expandBooks) {
+            expandBooks(authors, booksLimit);
         }
-        Author author = new Author();
-        author.setName(authorRequest.getName());
-        author.setBirthYear(authorRequest.getBirthYear());
-        log.info("Добавление нового автора " + author.getName());
-        authorRepository.save(author);
+        return new CursorPageResponse<>(authors, next);
     }
 
     /**
-     * Получает список авторов с пагинацией.
+     * Получает список авторов с пагинацией по номеру страницы, без подсчета общего количества авторов.
      * @param page номер страницы (начинается с 0)
-     * @param size количество записей на страницу
+     * @param size количество записей на страницу (по умолчанию {@value #DEFAULT_NUMBERED_PAGE_SIZE},
+     *             ограничивается сверху {@value #MAX_PAGE_SIZE})
+     * @param expandBooks добавить к каждому автору первую страницу его книг
+     * @param booksLimit количество книг каждого автора (ограничивается сверху {@value #MAX_BOOKS_PER_AUTHOR})
      * @return страница с авторами
      */
-    @Transactional
-    public Page<Author> getAuthors(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    @Transactional(readOnly = true)
+    public SlicePageResponse<AuthorResponse> getAuthors(int page, Integer size, boolean expandBooks,
+                                                        Integer booksLimit) {
+        int pageSize = pageSize(size == null ? DEFAULT_NUMBERED_PAGE_SIZE : size);
         log.info("Поиск авторов постранично");
-        return authorRepository.findAll(pageable);
+        Slice<AuthorResponse> authors = authorRepository.findResponses(PageRequest.of(Math.max(page, 0), pageSize));
+        if (expandBooks) {
+            expandBooks(authors.getContent(), booksLimit);
+        }
+        return new SlicePageResponse<>(authors.getContent(), authors.getNumber(), pageSize, authors.hasNext());
+    }
+
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Добавляет к авторам первые страницы их книг. Книги всех авторов читаются одним запросом,
+     * лишняя книга автора означает, что у его книг есть следующая страница.
+     */
+    private void expandBooks(List<AuthorResponse> authors, Integer booksLimit) {
+        if (authors.isEmpty()) {
+            return;
+        }
+        int size = booksLimit == null ? DEFAULT_BOOKS_PER_AUTHOR
+                : Math.min(Math.max(booksLimit, 1), MAX_BOOKS_PER_AUTHOR);
+        List<Long> authorIds = authors.stream().map(AuthorResponse::getId).toList();
+        Map<Long, List<BookResponse>> booksByAuthor = new HashMap<>();
+        for (BookResponse book : bookRepository.findFirstResponsesByAuthors(authorIds, size + 1)) {
+            booksByAuthor.computeIfAbsent(book.getAuthorId(), id -> new ArrayList<>()).add(book);
+        }
+        for (AuthorResponse author : authors) {
+            author.setBooks(BookService.toPage(booksByAuthor.getOrDefault(author.getId(), List.of()), size));
+        }
+    }
+
+    /**
+     * Получает авторов по списку ID одним запросом.
+     * @param ids идентификаторы авторов (не более {@value BookService#MAX_IDS}); повторы не учитываются
+     * @return найденные авторы в порядке запрошенных ID и ID ненайденных авторов
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResponse<AuthorResponse> getAuthorsByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        log.info("Получение {} авторов по списку идентификаторов", distinctIds.size());
+        return BookService.toMultiGet(distinctIds, BookService.byId(
+                authorRepository.findResponsesByIds(distinctIds.toArray(Long[]::new)), AuthorResponse::getId));
     }
 
     /**
      * Получает автора по ID.
+     * Одновременные запросы разных авторов объединяются в один запрос по списку ID (см. {@link RequestCollapser}),
+     * который выполняется на основной базе данных.
      * @param id идентификатор автора
-     * @return Optional с автором или пустой, если автор не найден
+     * @return автор
+     * @throws AuthorNotFoundException если автор не найден
      */
-    @Transactional
-    public Optional<Author> getAuthorById(@PathVariable Long id) {
-        if (!authorRepository.existsById(id)) {
-            String message = "Автор с ID " + id + " не найден";
-            log.error(message);
-            throw new AuthorNotFoundException(message);
-        }
+    @Cacheable(cacheNames = CacheConfig.AUTHORS, key = "#id")
+    public Author getAuthorById(Long id) {
         log.info("Поиск автора по указанному идентификатору");
-        return authorRepository.findById(id);
+        return authorLoader.load(id)
+                .orElseThrow(() -> {
+                    String message = "Автор с ID " + id + " не найден";
+                    log.error(message);
+                    return new AuthorNotFoundException(message);
+                });
+    }
+
+    /**
+     * Получает текущую версию автора без загрузки остальных данных.
+     * Версия читается с основной базы данных, как и автор в {@link #getAuthorById}: ответ 304 и ответ с телом
+     * должны строиться по одной и той же записи, иначе отстающая реплика ответила бы 304 клиенту
+     * с устаревшим ETag сразу после изменения.
+     * @param id идентификатор автора
+     * @return версия автора
+     * @throws AuthorNotFoundException если автор не найден
+     */
+    public long getAuthorVersion(Long id) {
+        return transactionTemplate.execute(status -> authorRepository.findVersionById(id))
+                .orElseThrow(() -> {
+                    String message = "Автор с ID " + id + " не найден";
+                    log.error(message);
+                    return new AuthorNotFoundException(message);
+                });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,240 @@
+package com.kode.bookaccountingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.kode.bookaccountingservice.dto.BookImportResponse;
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.entity.Book;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Сервис для пакетного импорта книг
+ */
+@Service
+public class BookImportService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader bookRequestReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public BookImportService(BookRepository bookRepository, AuthorRepository authorRepository, Validator validator,
+                             EntityManager entityManager, TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                             @Value("${app.books.import.chunk-size:500}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.bookRequestReader = objectMapper.readerFor(BookRequest.class);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    /**
+     * Импортирует книги из JSON-массива.
+     * @param bookRequests данные книг в порядке поступления
+     * @return результаты импорта по каждой книге
+     */
+    public BookImportResponse importBooks(List<BookRequest> bookRequests) {
+        return importItems(bookRequests.stream().map(ImportItem::new).iterator());
+    }
+
+    /**
+     * Импортирует книги из потока NDJSON (один JSON-объект на строку), не загружая весь поток в память.
+     * Пустые строки пропускаются, строка с некорректным JSON отклоняется без остановки импорта.
+     * @param inputStream поток NDJSON
+     * @return результаты импорта по каждой книге
+     */
+    public BookImportResponse importNdjson(InputStream inputStream) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Iterator<ImportItem> items = new Iterator<>() {
+            private String line = nextLine();
+
+            @Override
+            public boolean hasNext() {
+                return line != null;
+            }
+
+            @Override
+            public ImportItem next() {
+                if (line == null) {
+                    throw new NoSuchElementException();
+                }
+                ImportItem item;
+                try {
+                    item = new ImportItem(bookRequestReader.<BookRequest>readValue(line));
+                } catch (JsonProcessingException e) {
+                    item = new ImportItem("Некорректный JSON: " + e.getOriginalMessage());
+                }
+                line = nextLine();
+                return item;
+            }
+
+            private String nextLine() {
+                try {
+                    String next = reader.readLine();
+                    while (next != null && next.isBlank()) {
+                        next = reader.readLine();
+                    }
+                    return next;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return importItems(items);
+    }
+
+    /**
+     * Импортирует книги пакетами. Каждый пакет сохраняется в отдельной транзакции:
+     * авторы и занятые наименования проверяются одним запросом на пакет, вставка выполняется JDBC-батчами.
+     */
+    private BookImportResponse importItems(Iterator<ImportItem> items) {
+        log.info("Пакетный импорт книг, размер пакета {}", chunkSize);
+        List<BookImportResult> results = new ArrayList<>();
+        List<ImportItem> chunk = new ArrayList<>(chunkSize);
+        while (items.hasNext()) {
+            chunk.add(items.next());
+            if (chunk.size() == chunkSize) {
+                results.addAll(importChunk(chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, results.size()));
+        }
+        BookImportResponse response = new BookImportResponse(results);
+        log.info("Импорт книг завершен: добавлено {}, отклонено {}", response.getCreated(), response.getRejected());
+        return response;
+    }
+
+    private List<BookImportResult> importChunk(List<ImportItem> chunk, int firstIndex) {
+        try {
+            return transactionTemplate.execute(status -> saveChunk(chunk, firstIndex));
+        } catch (DataAccessException e) {
+            log.error("Не удалось сохранить пакет книг, начиная с #{}", firstIndex, e);
+            Map<String, String> errors = Map.of("batch", "Пакет не сохранен: " + e.getMostSpecificCause().getMessage());
+            List<BookImportResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(BookImportResult.rejected(firstIndex + i, errors));
+            }
+            return results;
+        }
+    }
+
+    private List<BookImportResult> saveChunk(List<ImportItem> chunk, int firstIndex) {
+        BookImportResult[] results = new BookImportResult[chunk.size()];
+        Set<Long> authorIds = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportItem item = chunk.get(i);
+            if (item.parseError != null) {
+                results[i] = BookImportResult.rejected(firstIndex + i, Map.of("book", item.parseError));
+                continue;
+            }
+            BookRequest bookRequest = item.bookRequest;
+            if (bookRequest == null) {
+                results[i] = BookImportResult.rejected(firstIndex + i, Map.of("book", "Данные книги отсутствуют"));
+                continue;
+            }
+            Set<ConstraintViolation<BookRequest>> violations = validator.validate(bookRequest);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new LinkedHashMap<>();
+                for (ConstraintViolation<BookRequest> violation : violations) {
+                    errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                results[i] = BookImportResult.rejected(firstIndex + i, errors);
+                continue;
+            }
+            authorIds.add(bookRequest.getAuthorId());
+            titles.add(bookRequest.getTitle());
+        }
+
+        Set<Long> existingAuthorIds = authorIds.isEmpty() ? Set.of() : authorRepository.findExistingIds(authorIds);
+        Set<String> takenTitles = titles.isEmpty() ? new HashSet<>() : new HashSet<>(bookRepository.findExistingTitles(titles));
+
+        List<Book> books = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BookRequest bookRequest = chunk.get(i).bookRequest;
+            if (!existingAuthorIds.contains(bookRequest.getAuthorId())) {
+                results[i] = BookImportResult.rejected(firstIndex + i,
+                        Map.of("authorId", "Автор с ID " + bookRequest.getAuthorId() + " не найден"));
+            } else if (!takenTitles.add(bookRequest.getTitle())) {
+                results[i] = BookImportResult.rejected(firstIndex + i,
+                        Map.of("title", "Книга с таким наименованием уже добавлена в базу"));
+            } else {
+                Book book = new Book();
+                book.setTitle(bookRequest.getTitle());
+                book.setAuthor(authorRepository.getReferenceById(bookRequest.getAuthorId()));
+                book.setYear(bookRequest.getYear());
+                book.setGenre(bookRequest.getGenre());
+                books.add(book);
+                positions.add(i);
+            }
+        }
+
+        bookRepository.saveAll(books);
+        entityManager.flush();
+        entityManager.clear();
+        for (int k = 0; k < books.size(); k++) {
+            Book book = books.get(k);
+            int position = positions.get(k);
+            results[position] = BookImportResult.created(firstIndex + position, book.getId());
+            eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, book.getId(),
+                    book.getTitle()));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Запись входных данных: разобранная книга либо описание ошибки разбора.
+     */
+    private static final class ImportItem {
+        private final BookRequest bookRequest;
+        private final String parseError;
+
+        private ImportItem(BookRequest bookRequest) {
+            this.bookRequest = bookRequest;
+            this.parseError = null;
+        }
+
+        private ImportItem(String parseError) {
+            this.bookRequest = null;
+            this.parseError = parseError;
+        }
+    }
+}
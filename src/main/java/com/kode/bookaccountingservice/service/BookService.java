@@ -1,22 +1,42 @@
 package com.kode.bookaccountingservice.service;
 
+import com.kode.bookaccountingservice.config.CacheConfig;
 import com.kode.bookaccountingservice.dto.BookRequest;
 import com.kode.bookaccountingservice.dto.BookResponse;
-import com.kode.bookaccountingservice.entity.Author;
+import com.kode.bookaccountingservice.dto.BookSearchRequest;
+import com.kode.bookaccountingservice.dto.BookSearchResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.FacetCount;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
 import com.kode.bookaccountingservice.entity.Book;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
 import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
 import com.kode.bookaccountingservice.exception.BookAlreadyExistsException;
 import com.kode.bookaccountingservice.exception.BookNotFoundException;
+import com.kode.bookaccountingservice.exception.BookVersionMismatchException;
 import com.kode.bookaccountingservice.repository.AuthorRepository;
 import com.kode.bookaccountingservice.repository.BookRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Сервис для работы с книгами
@@ -26,93 +46,268 @@ public class BookService {
 
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestCollapser<Long, BookResponse> bookLoader;
 
-    public BookService(BookRepository bookRepository, AuthorRepository authorRepository) {
+    public BookService(BookRepository bookRepository, AuthorRepository authorRepository,
+                       ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                       @Value("${app.lookup.collapse-window:2ms}") Duration collapseWindow) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        // результат попадает в кэш, поэтому читается с основной базы данных, а не с реплики:
+        // иначе отстающая реплика вернула бы в кэш только что измененную или удаленную запись
+        this.bookLoader = new RequestCollapser<>(ids -> transactionTemplate.execute(status ->
+                byId(bookRepository.findResponsesByIds(ids.toArray(Long[]::new)), BookResponse::getId)),
+                collapseWindow, MAX_IDS);
     }
 
     private static final Logger log = LoggerFactory.getLogger(BookService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+    /**
+     * Наибольшее количество ID в одном запросе записей по списку ID и в одном объединенном запросе
+     */
+    public static final int MAX_IDS = 100;
+
     /**
      * Добавляет новую книгу.
+     * Вставка выполняется одним запросом; повторное наименование и отсутствующий автор
+     * определяются по ее результату, без предварительных проверок.
      * @param bookRequest данные книги
-     * @throws IllegalArgumentException если автор не найден
+     * @throws BookAlreadyExistsException если книга с таким наименованием уже есть
+     * @throws AuthorNotFoundException если автор не найден
      */
     @Transactional
     public void addBook(BookRequest bookRequest) {
-        if (bookRepository.existsByTitle(bookRequest.getTitle())){
-            String message = "Книга с таким наименованием уже добавлена в базу";
-            log.error(message);
-            throw new BookAlreadyExistsException(message);
+        log.info("Добавление новой книги {}", bookRequest.getTitle());
+        Optional<Long> id = bookRepository.insertIfAbsent(bookRequest.getTitle(), bookRequest.getAuthorId(),
+                bookRequest.getYear(), bookRequest.getGenre());
+        if (id.isPresent()) {
+            log.info("Книга добавлена с ID {}", id.get());
+            eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, id.get(),
+                    bookRequest.getTitle()));
+            return;
         }
-        Author author = authorRepository.findById(bookRequest.getAuthorId())
-                .orElseThrow(() -> {
-                   return new AuthorNotFoundException("Автор с ID" + bookRequest.getAuthorId() + " не найден: ");
-                });
-        Book book = new Book();
-        book.setTitle(bookRequest.getTitle());
-        book.setAuthor(author);
-        book.setYear(bookRequest.getYear());
-        book.setGenre(bookRequest.getGenre());
-        log.info("Добавление новой книги " + book.getTitle());
-        bookRepository.save(book);
+        if (!authorRepository.existsById(bookRequest.getAuthorId())) {
+            throw new AuthorNotFoundException("Автор с ID" + bookRequest.getAuthorId() + " не найден: ");
+        }
+        String message = "Книга с таким наименованием уже добавлена в базу";
+        log.error(message);
+        throw new BookAlreadyExistsException(message);
     }
 
     /**
      * Получает список всех книг.
      * @return список книг
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public List<BookResponse> getAllBooks() {
         log.info("Получение информации обо всех книгах");
-        List<Book> books = bookRepository.findAll();
+        List<BookResponse> books = bookRepository.findAllResponses();
         log.info("Найдено {} книг", books.size());
-        return books.stream().map(this::toBookResponse).collect(Collectors.toList());
+        return books;
     }
 
     /**
-     * Получает книгу по ID.
-     * @param id идентификатор книги
-     * @return Optional с книгой или пустой, если книга не найдена
+     * Получает страницу книг, упорядоченных по ID, начиная после курсора.
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value #MAX_PAGE_SIZE})
+     * @return страница книг с курсором следующей страницы
      */
-    @Transactional
-    public Optional<BookResponse> getBookById(Long id) {
-        if (!bookRepository.existsById(id)) {
-            String message = "Книга с ID " + id + " не найдена";
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BookResponse> getBooksPage(String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = pageSize(limit);
+        log.info("Получение страницы книг после ID {}", afterId);
+        List<BookResponse> books = bookRepository.findResponsesAfter(afterId, Limit.of(size + 1));
+        return toPage(books, size);
+    }
+
+    /**
+     * Получает страницу книг автора, упорядоченных по ID, начиная после курсора.
+     * Наличие автора проверяется отдельным запросом, только если страница пуста.
+     * @param authorId идентификатор автора
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value #MAX_PAGE_SIZE})
+     * @return страница книг автора с курсором следующей страницы
+     * @throws AuthorNotFoundException если автор не найден
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BookResponse> getAuthorBooks(Long authorId, String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = pageSize(limit);
+        log.info("Получение страницы книг автора {} после ID {}", authorId, afterId);
+        List<BookResponse> books = bookRepository.findResponsesByAuthorAfter(authorId, afterId, Limit.of(size + 1));
+        if (books.isEmpty() && !authorRepository.existsById(authorId)) {
+            String message = "Автор с ID " + authorId + " не найден";
             log.error(message);
-            throw new BookNotFoundException(message);
+            throw new AuthorNotFoundException(message);
+        }
+        return toPage(books, size);
+    }
+
+    /**
+     * Ищет книги по наименованию, жанру, годам публикации и автору.
+     * Результаты упорядочены по ID и выдаются с курсорной пагинацией; количество найденных книг
+     * по жанрам и десятилетиям считается только для первой страницы.
+     * @param searchRequest условия поиска
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value #MAX_PAGE_SIZE})
+     * @return страница найденных книг
+     */
+    @Transactional(readOnly = true)
+    public BookSearchResponse searchBooks(BookSearchRequest searchRequest, String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = pageSize(limit);
+        String titlePattern = titlePattern(searchRequest.getTitle(), searchRequest.getMatch());
+        String genre = searchRequest.getGenre();
+        Integer yearFrom = searchRequest.getYearFrom();
+        Integer yearTo = searchRequest.getYearTo();
+        Long authorId = searchRequest.getAuthorId();
+        log.info("Поиск книг после ID {}", afterId);
+        CursorPageResponse<BookResponse> page = toPage(bookRepository.searchResponsesAfter(
+                titlePattern, genre, yearFrom, yearTo, authorId, afterId, Limit.of(size + 1)), size);
+        List<FacetCount> genres = null;
+        List<FacetCount> decades = null;
+        if (afterId == 0) {
+            genres = bookRepository.countByGenre(titlePattern, genre, yearFrom, yearTo, authorId);
+            decades = bookRepository.countByDecade(titlePattern, genre, yearFrom, yearTo, authorId);
+        }
+        return new BookSearchResponse(page.getItems(), page.getNext(), genres, decades);
+    }
+
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Оставляет на странице не больше size записей; лишняя запись означает, что есть следующая страница.
+     */
+    static CursorPageResponse<BookResponse> toPage(List<BookResponse> books, int size) {
+        String next = null;
+        if (books.size() > size) {
+            books = books.subList(0, size);
+            next = CursorCodec.encode(books.get(size - 1).getId());
+        }
+        return new CursorPageResponse<>(books, next);
+    }
+
+    /**
+     * Строит шаблон LIKE для поиска по наименованию в нижнем регистре, экранируя служебные символы.
+     * @return шаблон или null, если строка поиска пуста
+     */
+    static String titlePattern(String title, BookSearchRequest.TitleMatch match) {
+        if (title == null || title.isBlank()) {
+            return null;
         }
-        log.info("Получение книги по идентификатору " + id);
-        Optional<Book> book = bookRepository.findById(id);
-        if (book.isPresent()) {
-            log.info("Книга найдена");
-        } else {
-            log.warn("Книги с таким идентификатором не найдено");
+        String escaped = title.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return match == BookSearchRequest.TitleMatch.PREFIX ? escaped + "%" : "%" + escaped + "%";
+    }
+
+    /**
+     * Последовательно передает все книги обработчику, читая их курсором базы данных.
+     * Строки читаются сразу в DTO без загрузки сущностей, поэтому потребление памяти не зависит от размера таблицы.
+     * @param consumer обработчик очередной книги
+     */
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookResponse> consumer) {
+        log.info("Потоковая выдача всех книг");
+        try (Stream<BookResponse> books = bookRepository.streamAllResponses()) {
+            books.forEach(consumer);
         }
-        return book.map(this::toBookResponse);
+    }
+
+    /**
+     * Получает книги по списку ID одним запросом.
+     * @param ids идентификаторы книг (не более {@value #MAX_IDS}); повторы не учитываются
+     * @return найденные книги в порядке запрошенных ID и ID ненайденных книг
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResponse<BookResponse> getBooksByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        log.info("Получение {} книг по списку идентификаторов", distinctIds.size());
+        return toMultiGet(distinctIds,
+                byId(bookRepository.findResponsesByIds(distinctIds.toArray(Long[]::new)), BookResponse::getId));
+    }
+
+    /**
+     * Получает книгу по ID.
+     * Одновременные запросы разных книг объединяются в один запрос по списку ID (см. {@link RequestCollapser}),
+     * который выполняется в собственной транзакции на основной базе данных, поэтому ожидающие запросы
+     * не занимают соединения.
+     * @param id идентификатор книги
+     * @return книга
+     * @throws BookNotFoundException если книга не найдена
+     */
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public BookResponse getBookById(Long id) {
+        log.info("Получение книги по идентификатору {}", id);
+        return bookLoader.load(id)
+                .orElseThrow(() -> {
+                    String message = "Книга с ID " + id + " не найдена";
+                    log.error(message);
+                    return new BookNotFoundException(message);
+                });
+    }
+
+    /**
+     * Получает текущую версию книги без загрузки остальных данных.
+     * Версия читается с основной базы данных, как и книга в {@link #getBookById}: ответ 304 и ответ с телом
+     * должны строиться по одной и той же записи, иначе отстающая реплика ответила бы 304 клиенту
+     * с устаревшим ETag сразу после изменения.
+     * @param id идентификатор книги
+     * @return версия книги
+     * @throws BookNotFoundException если книга не найдена
+     */
+    public long getBookVersion(Long id) {
+        return transactionTemplate.execute(status -> bookRepository.findVersionById(id))
+                .orElseThrow(() -> {
+                    String message = "Книга с ID " + id + " не найдена";
+                    log.error(message);
+                    return new BookNotFoundException(message);
+                });
     }
 
     /**
      * Обновляет информацию о книге.
+     * Изменение, сделанное параллельно между чтением и записью книги, обнаруживается по версии записи.
      * @param id идентификатор книги
      * @param bookRequest новые данные книги
-     * @throws IllegalArgumentException если книга или автор не найдены
+     * @param expectedVersion версия, которую видел клиент, или null, если проверка не нужна
+     * @return новая версия книги
+     * @throws BookNotFoundException если книга не найдена
+     * @throws BookVersionMismatchException если текущая версия книги отличается от ожидаемой
      */
     @Transactional
-    public void updateBook(Long id, BookRequest bookRequest) {
-        log.info("Обновляются данные о книге #" + id);
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
+    public long updateBook(Long id, BookRequest bookRequest, Long expectedVersion) {
+        log.info("Обновляются данные о книге #{}", id);
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> {
                     String message = "Книга с ID " + id + " не найдена";
                     log.error(message);
                     return new BookNotFoundException(message);
                 });
+        if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) {
+            String message = "Книга с ID " + id + " была изменена: текущая версия " + book.getVersion();
+            log.error(message);
+            throw new BookVersionMismatchException(message);
+        }
         book.setTitle(bookRequest.getTitle());
         book.setYear(bookRequest.getYear());
         book.setGenre(bookRequest.getGenre());
-        bookRepository.save(book);
+        // Версия увеличивается при записи, поэтому изменения записываются сразу
+        book = bookRepository.saveAndFlush(book);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, id, book.getTitle()));
         log.info("Данные о книге обновлены");
+        return book.getVersion();
     }
 
     /**
@@ -121,29 +316,43 @@ public class BookService {
      * @throws IllegalArgumentException если книга не найдена
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
     public void deleteBook(Long id) {
-        log.info("Удаление данных о книге #" + id);
-        if (!bookRepository.existsById(id)) {
+        log.info("Удаление данных о книге #{}", id);
+        if (bookRepository.deleteBookById(id) == 0) {
             String message = "Книга с ID " + id + " не найдена";
             log.error(message);
             throw new BookNotFoundException(message);
         }
-        bookRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.BOOK, id));
         log.info("Данные о книге удалены");
     }
 
     /**
-     * Преобразует сущность Book в DTO BookResponse.
-     * @param book сущность книги
-     * @return объект BookResponse
+     * Раскладывает записи по ID.
      */
-    private BookResponse toBookResponse(Book book) {
-        BookResponse response = new BookResponse();
-        response.setId(book.getId());
-        response.setTitle(book.getTitle());
-        response.setAuthorId(book.getAuthor().getId());
-        response.setYear(book.getYear());
-        response.setGenre(book.getGenre());
-        return response;
+    static <T> Map<Long, T> byId(List<T> items, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : items) {
+            byId.put(idOf.apply(item), item);
+        }
+        return byId;
+    }
+
+    /**
+     * Упорядочивает найденные записи по запрошенным ID и собирает ID ненайденных записей.
+     */
+    static <T> MultiGetResponse<T> toMultiGet(List<Long> ids, Map<Long, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new MultiGetResponse<>(items, missingIds);
     }
 }
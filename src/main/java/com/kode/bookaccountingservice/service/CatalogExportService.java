@@ -0,0 +1,113 @@
+package com.kode.bookaccountingservice.service;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сервис выгрузки всего каталога в CSV или NDJSON.
+ * Строки формирует сама база данных запросом COPY ... TO STDOUT и передает их в поток ответа по мере чтения:
+ * объекты книг и авторов не создаются, а память не зависит от размера каталога.
+ * Выгрузка выполняется в транзакции только для чтения, поэтому при настроенной реплике читает с нее.
+ */
+@Service
+public class CatalogExportService {
+
+    private final DataSource dataSource;
+
+    public CatalogExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    static final String BOOKS_QUERY = "select id, title, author_id as \"authorId\", year, genre " +
+            "from books where deleted = false order by id";
+    static final String AUTHORS_QUERY = "select id, name, birth_year as \"birthYear\" from authors order by id";
+
+    /**
+     * Выгружает все книги, кроме удаленных, в порядке ID.
+     * @param format формат выгрузки
+     * @param gzip сжимать ли выгрузку
+     * @param out поток, в который записывается выгрузка; не закрывается
+     * @return количество выгруженных книг
+     * @throws IOException при ошибке записи в поток
+     */
+    @Transactional(readOnly = true)
+    public long exportBooks(CatalogFormat format, boolean gzip, OutputStream out) throws IOException {
+        log.info("Выгрузка книг в формате {}", format);
+        long rows = copyOut(copyQuery(BOOKS_QUERY, format), gzip, out);
+        log.info("Выгружено книг: {}", rows);
+        return rows;
+    }
+
+    /**
+     * Выгружает всех авторов в порядке ID.
+     * @param format формат выгрузки
+     * @param gzip сжимать ли выгрузку
+     * @param out поток, в который записывается выгрузка; не закрывается
+     * @return количество выгруженных авторов
+     * @throws IOException при ошибке записи в поток
+     */
+    @Transactional(readOnly = true)
+    public long exportAuthors(CatalogFormat format, boolean gzip, OutputStream out) throws IOException {
+        log.info("Выгрузка авторов в формате {}", format);
+        long rows = copyOut(copyQuery(AUTHORS_QUERY, format), gzip, out);
+        log.info("Выгружено авторов: {}", rows);
+        return rows;
+    }
+
+    /**
+     * Строит запрос COPY. Для NDJSON каждая строка выгружается одним JSON-объектом в формате csv с разделителем
+     * и кавычкой, которые не встречаются в JSON (управляющие символы в нем экранируются): так строка передается
+     * без изменений, тогда как текстовый формат COPY удвоил бы обратные косые черты.
+     */
+    static String copyQuery(String query, CatalogFormat format) {
+        return switch (format) {
+            case CSV -> "copy (" + query + ") to stdout with (format csv, header)";
+            case NDJSON -> "copy (select row_to_json(r) from (" + query + ") r) to stdout " +
+                    "with (format csv, quote e'\\x01', delimiter e'\\x02')";
+        };
+    }
+
+    private long copyOut(String sql, boolean gzip, OutputStream out) throws IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (!gzip) {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            }
+            // сжатие выполняется по ходу выгрузки: на уровне по умолчанию скорость выгрузки ограничивало бы сжатие,
+            // а не база данных
+            GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+            // COPY пишет по одной строке за вызов: буфер избавляет сжатие от множества мелких вызовов
+            BufferedOutputStream buffered = new BufferedOutputStream(compressed, GZIP_BUFFER_SIZE);
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, buffered);
+            buffered.flush();
+            compressed.finish();
+            return rows;
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY", sql, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
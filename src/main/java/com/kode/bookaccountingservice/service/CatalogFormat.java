@@ -0,0 +1,36 @@
+package com.kode.bookaccountingservice.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Формат выгрузки и загрузки каталога. Наименования полей совпадают с полями ответов API.
+ */
+public enum CatalogFormat {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE, "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    CatalogFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * @param gzip сжимается ли выгрузка
+     * @return тип содержимого выгрузки
+     */
+    public String getMediaType(boolean gzip) {
+        return gzip ? "application/gzip" : mediaType;
+    }
+
+    /**
+     * @param name наименование выгружаемых данных
+     * @param gzip сжимается ли выгрузка
+     * @return имя файла выгрузки
+     */
+    public String getFileName(String name, boolean gzip) {
+        return name + "." + extension + (gzip ? ".gz" : "");
+    }
+}
@@ -0,0 +1,109 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.exception.InvalidCatalogFileException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Массовая загрузка книг из файла при запуске приложения (см. {@link CatalogLoadService}).
+ * Формат определяется по расширению: .csv, .ndjson или .jsonl, сжатый файл — с дополнительным расширением .gz.
+ * Код завершения — 0, если добавлены все записи, и {@value #REJECTED_EXIT_CODE}, если часть записей отклонена.
+ */
+public class CatalogLoadRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogLoadRunner.class);
+
+    public static final String FILE_PROPERTY = "app.load.file";
+
+    static final int REJECTED_EXIT_CODE = 2;
+
+    private static final String WEB_APPLICATION_TYPE_PROPERTY = "spring.main.web-application-type";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogLoadService catalogLoadService;
+    private final Path file;
+    private int exitCode;
+
+    public CatalogLoadRunner(CatalogLoadService catalogLoadService, Path file) {
+        this.catalogLoadService = catalogLoadService;
+        this.file = file;
+    }
+
+    /**
+     * Проверяет, запрошена ли загрузка файла: свойство {@value #FILE_PROPERTY} может быть задано аргументом
+     * командной строки, системным свойством, переменной окружения APP_LOAD_FILE или в файле настроек.
+     * @param environment настройки приложения
+     * @return true, если приложение запущено для загрузки файла
+     */
+    public static boolean isRequested(Environment environment) {
+        return environment.containsProperty(FILE_PROPERTY);
+    }
+
+    /**
+     * Запускает приложение без веб-сервера, если запрошена загрузка файла. Вызывается после чтения всех
+     * источников настроек и до выбора типа приложения, поэтому заменяет и тип, заданный профилем reactive.
+     * @param event событие подготовки настроек приложения
+     */
+    public static void disableWebServerIfRequested(ApplicationEnvironmentPreparedEvent event) {
+        ConfigurableEnvironment environment = event.getEnvironment();
+        if (isRequested(environment)) {
+            environment.getPropertySources().addFirst(new MapPropertySource("catalogLoad",
+                    Map.of(WEB_APPLICATION_TYPE_PROPERTY, WebApplicationType.NONE.name())));
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        CatalogFormat format;
+        if (name.endsWith(".csv")) {
+            format = CatalogFormat.CSV;
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            format = CatalogFormat.NDJSON;
+        } else {
+            throw new InvalidCatalogFileException("Не удалось определить формат файла " + file +
+                    ": ожидается расширение .csv, .ndjson или .jsonl");
+        }
+        log.info("Загрузка книг из файла {}", file);
+        CatalogLoadResponse response;
+        try (InputStream inputStream = gzip
+                ? new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE)
+                : Files.newInputStream(file)) {
+            response = catalogLoadService.loadBooks(format, inputStream);
+        }
+        for (BookImportResult rejected : response.getRejectedRows()) {
+            log.warn("Запись #{} отклонена: {}", rejected.getIndex() + 1, rejected.getErrors());
+        }
+        log.info("Загрузка файла {} завершена: получено {}, добавлено книг {}, авторов {}, отклонено {}", file,
+                response.getReceived(), response.getCreated(), response.getAuthorsCreated(), response.getRejected());
+        exitCode = response.getRejected() > 0 ? REJECTED_EXIT_CODE : 0;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
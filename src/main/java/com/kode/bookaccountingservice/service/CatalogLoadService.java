@@ -0,0 +1,365 @@
+package com.kode.bookaccountingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.event.CatalogLoadedEvent;
+import com.kode.bookaccountingservice.exception.InvalidCatalogFileException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Сервис массовой загрузки книг из CSV или NDJSON.
+ * <p>
+ * Записи передаются в промежуточную временную таблицу запросом COPY FROM STDIN, после чего проверяются
+ * и переносятся в authors и books несколькими запросами над всей таблицей: отсутствующие авторы добавляются
+ * по имени, книги с уже занятым или повторяющимся в файле наименованием отклоняются. Загрузка выполняется
+ * в одной транзакции: добавляются либо все прошедшие проверку книги, либо ни одной.
+ * Время изменения добавленных записей проставляется последним запросом перед фиксацией (см. {@link #STAMP_BOOKS}).
+ * <p>
+ * Запись каталога содержит поля title, author (имя автора), year и genre; проверки совпадают с проверками
+ * {@link com.kode.bookaccountingservice.dto.BookRequest} и {@link com.kode.bookaccountingservice.dto.AuthorRequest}.
+ */
+@Service
+public class CatalogLoadService {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectReader jsonReader;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatalogLoadService(DataSource dataSource, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonReader = objectMapper.reader();
+        this.eventPublisher = eventPublisher;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogLoadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Наибольшее количество отклоненных записей, перечисляемых в ответе; общее количество выдается всегда.
+     */
+    static final int MAX_REJECTED_ROWS = 1000;
+
+    static final List<String> COLUMNS = List.of("title", "author", "year", "genre");
+
+    static final String CREATE_STAGING_TABLE = "create temp table book_load (" +
+            "line bigint generated by default as identity, title text, author text, year text, genre text, " +
+            "error_field text, error text) on commit drop";
+
+    /**
+     * Проверки полей в порядке применения; запись отклоняется по первой нарушенной проверке.
+     * Пробелы в начале и в конце значений не учитываются: записи переносятся без них.
+     */
+    static final List<Check> CHECKS = List.of(
+            new Check("title", "title is null or btrim(title) = ''", "Поле не должно быть пустым"),
+            new Check("title", "length(btrim(title)) > 255", "Наименование не должно превышать 255 символов"),
+            new Check("author", "author is null or btrim(author) = ''", "Имя не должно быть пустым"),
+            new Check("author", "length(btrim(author)) not between 3 and 100", "Имя не должно быть меньше 3 больше 100 символов"),
+            new Check("author", "btrim(author) !~ '^[а-яА-Яa-zA-Z0-9\\s?!,.''Ёё]+$'", "Имя содержит недопустимые символы"),
+            new Check("year", "year is null or btrim(year) = ''", "Поле не должно быть пустым"),
+            new Check("year", "btrim(year) !~ '^-?[0-9]{1,9}$'", "Значение должно быть целым числом"),
+            new Check("year", "btrim(year)::int < 0", "Значение не должно быть отрицательным"),
+            new Check("year", "btrim(year)::int > 2025", "Год не должен быть больше текущего"),
+            new Check("genre", "genre is null or btrim(genre) = ''", "Поле не должно быть пустым"),
+            new Check("genre", "length(btrim(genre)) not between 3 and 255", "Длина поля должна быть от 3 до 255 символов"));
+
+    static final String VALIDATE = validateQuery();
+
+    static final String REJECT_DUPLICATES = "update book_load s set error_field = 'title', " +
+            "error = case when d.repeated then 'Книга с таким наименованием уже есть в загружаемых данных' " +
+            "else 'Книга с таким наименованием уже добавлена в базу' end " +
+            "from (select line, row_number() over (partition by btrim(title) order by line) > 1 as repeated " +
+            "from book_load where error is null) d " +
+            "where s.line = d.line and (d.repeated or exists " +
+            "(select 1 from books b where b.title = btrim(s.title) and b.deleted = false))";
+
+    static final String MERGE_AUTHORS = "with created as (insert into authors (id, name) " +
+            "select nextval('author_seq'), author from (select distinct btrim(author) as author from book_load " +
+            "where error is null order by author) a on conflict (name) do nothing returning id, name), " +
+            "recorded as (insert into change_events (id, entity, entity_id, operation, name) " +
+            "select nextval('change_event_seq'), 'AUTHOR', id, 'SAVED', name from created) " +
+            "select count(*), min(id), max(id) from created";
+
+    /**
+     * Наименование могло быть занято параллельным запросом после проверки: такая книга пропускается
+     * условием on conflict и отмечается отклоненной.
+     */
+    static final String MERGE_BOOKS = "with inserted as (insert into books (id, title, author_id, year, genre) " +
+            "select nextval('book_seq'), btrim(s.title), a.id, btrim(s.year)::int, btrim(s.genre) " +
+            "from book_load s join authors a on a.name = btrim(s.author) where s.error is null " +
+            "on conflict (title) where deleted = false do nothing returning id, title), " +
+            "recorded as (insert into change_events (id, entity, entity_id, operation, name) " +
+            "select nextval('change_event_seq'), 'BOOK', id, 'SAVED', title from inserted), " +
+            "taken as (update book_load s set error_field = 'title', " +
+            "error = 'Книга с таким наименованием уже добавлена в базу' " +
+            "where s.error is null and not exists (select 1 from inserted i where i.title = btrim(s.title))) " +
+            "select count(*), min(id), max(id) from inserted";
+
+    /**
+     * Синхронизация каталога не выдает изменения моложе окна безопасности и переносит водяную метку клиента
+     * на границу окна. Строки загрузки становятся видимыми только при фиксации, поэтому время изменения,
+     * взятое при вставке, у долгой загрузки оказалось бы раньше уже выданных меток, и клиенты пропустили бы
+     * загруженные записи. Время проставляется заново перед фиксацией; условие по наименованию оставляет
+     * из диапазона ID только записи этой загрузки, но не параллельных транзакций.
+     */
+    static final String STAMP_BOOKS = "update books set updated_at = clock_timestamp() " +
+            "where id between ? and ? and deleted = false " +
+            "and title in (select btrim(title) from book_load where error is null)";
+
+    /**
+     * Авторы, добавленные загрузкой (см. {@link #STAMP_BOOKS}); автор остается добавленным,
+     * даже если все его книги отклонены при переносе.
+     */
+    static final String STAMP_AUTHORS = "update authors set updated_at = clock_timestamp() " +
+            "where id between ? and ? and name in (select btrim(author) from book_load)";
+
+    /**
+     * Загружает книги из CSV или NDJSON.
+     * CSV начинается строкой заголовка с наименованиями полей в любом порядке; значения передаются в базу данных
+     * без разбора в приложении. Строка NDJSON содержит один JSON-объект; пустые строки пропускаются,
+     * строка с некорректным JSON отклоняется.
+     * @param format формат данных
+     * @param inputStream поток данных в UTF-8; не закрывается
+     * @return итоги загрузки и первые {@value #MAX_REJECTED_ROWS} отклоненных записей
+     * @throws InvalidCatalogFileException если заголовок CSV некорректен или данные не удается разобрать
+     * @throws IOException при ошибке чтения потока
+     */
+    @Transactional
+    public CatalogLoadResponse loadBooks(CatalogFormat format, InputStream inputStream) throws IOException {
+        log.info("Массовая загрузка книг в формате {}", format);
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        long received = copyIn(format, inputStream);
+        jdbcTemplate.execute("analyze book_load");
+        jdbcTemplate.update(VALIDATE);
+        jdbcTemplate.update(REJECT_DUPLICATES);
+        Created authors = jdbcTemplate.queryForObject(MERGE_AUTHORS, Created::map);
+        Created books = jdbcTemplate.queryForObject(MERGE_BOOKS, Created::map);
+
+        long rejected = received - books.count;
+        List<BookImportResult> rejectedRows = rejected == 0 ? List.of() : jdbcTemplate.query(
+                "select line, error_field, error from book_load where error is not null order by line limit ?",
+                (rs, rowNum) -> BookImportResult.rejected((int) (rs.getLong("line") - 1),
+                        Map.of(rs.getString("error_field"), rs.getString("error"))),
+                MAX_REJECTED_ROWS);
+        if (books.count > 0 || authors.count > 0) {
+            eventPublisher.publishEvent(new CatalogLoadedEvent(books.firstId, books.lastId, authors.firstId, authors.lastId));
+        }
+        stamp(STAMP_AUTHORS, authors);
+        stamp(STAMP_BOOKS, books);
+        log.info("Массовая загрузка завершена: получено {}, добавлено книг {}, авторов {}, отклонено {}",
+                received, books.count, authors.count, rejected);
+        return new CatalogLoadResponse(received, books.count, authors.count, rejected, rejectedRows);
+    }
+
+    /**
+     * Проставляет время изменения добавленным записям; выполняется последним запросом перед фиксацией.
+     */
+    private void stamp(String sql, Created created) {
+        if (created.count > 0) {
+            jdbcTemplate.update(sql, created.firstId, created.lastId);
+        }
+    }
+
+    private long copyIn(CatalogFormat format, InputStream inputStream) throws IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            return switch (format) {
+                case CSV -> copyCsv(pgConnection.getCopyAPI(), inputStream);
+                case NDJSON -> copyNdjson(pgConnection, inputStream);
+            };
+        } catch (SQLException e) {
+            // класс 22 — ошибки данных: неверное количество полей, незакрытая кавычка, некорректный UTF-8
+            if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                throw new InvalidCatalogFileException("Не удалось разобрать загружаемые данные: " + e.getMessage());
+            }
+            throw new UncategorizedSQLException("COPY", null, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Читает заголовок CSV и передает остальные строки в COPY без изменений.
+     */
+    private static long copyCsv(CopyManager copyManager, InputStream inputStream) throws SQLException, IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        List<String> columns = parseHeader(readLine(in));
+        return copyManager.copyIn("copy book_load (" + String.join(", ", columns) + ") from stdin with (format csv)",
+                in, BUFFER_SIZE);
+    }
+
+    /**
+     * Разбирает строки NDJSON и передает в COPY по строке CSV на запись.
+     * Номер записи передается явно, чтобы строки с некорректным JSON тоже попали в таблицу отклоненными.
+     */
+    private long copyNdjson(PGConnection connection, InputStream inputStream) throws SQLException, IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long line = 0;
+        try (Writer out = new OutputStreamWriter(new PGCopyOutputStream(connection,
+                "copy book_load (line, title, author, year, genre, error_field, error) from stdin with (format csv)",
+                BUFFER_SIZE), StandardCharsets.UTF_8)) {
+            String json;
+            while ((json = reader.readLine()) != null) {
+                if (json.isBlank()) {
+                    continue;
+                }
+                line++;
+                String[] values = new String[COLUMNS.size() + 2];
+                try {
+                    JsonNode node = jsonReader.readTree(json);
+                    if (node.isObject()) {
+                        for (int i = 0; i < COLUMNS.size(); i++) {
+                            JsonNode value = node.get(COLUMNS.get(i));
+                            values[i] = value == null || value.isNull() ? null
+                                    : value.isValueNode() ? value.asText() : value.toString();
+                        }
+                    } else {
+                        values[COLUMNS.size()] = "book";
+                        values[COLUMNS.size() + 1] = "Некорректный JSON: ожидается объект";
+                    }
+                } catch (JsonProcessingException e) {
+                    values[COLUMNS.size()] = "book";
+                    values[COLUMNS.size() + 1] = "Некорректный JSON: " + e.getOriginalMessage();
+                }
+                out.write(Long.toString(line));
+                for (String value : values) {
+                    out.write(',');
+                    writeCsvValue(out, value);
+                }
+                out.write('\n');
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Записывает значение CSV в кавычках; null записывается пустым значением без кавычек, как NULL.
+     */
+    private static void writeCsvValue(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Проверяет заголовок CSV: каждое поле записи каталога должно встречаться ровно один раз.
+     * @return наименования столбцов промежуточной таблицы в порядке заголовка
+     */
+    static List<String> parseHeader(String header) {
+        if (header == null) {
+            throw new InvalidCatalogFileException("Отсутствует строка заголовка CSV");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> columns = new ArrayList<>();
+        for (String name : header.split(",", -1)) {
+            String column = name.strip().replace("\"", "");
+            if (!COLUMNS.contains(column)) {
+                throw new InvalidCatalogFileException("Неизвестное поле заголовка CSV: " + column +
+                        ", допустимые поля: " + String.join(", ", COLUMNS));
+            }
+            if (columns.contains(column)) {
+                throw new InvalidCatalogFileException("Поле заголовка CSV повторяется: " + column);
+            }
+            columns.add(column);
+        }
+        if (columns.size() != COLUMNS.size()) {
+            List<String> missing = new ArrayList<>(COLUMNS);
+            missing.removeAll(columns);
+            throw new InvalidCatalogFileException("В заголовке CSV отсутствуют поля: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    /**
+     * Читает строку заголовка побайтно, не забирая из потока данные следующих строк.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return line.toString(StandardCharsets.UTF_8).stripTrailing();
+    }
+
+    private static String validateQuery() {
+        StringBuilder field = new StringBuilder("case");
+        StringBuilder message = new StringBuilder("case");
+        for (Check check : CHECKS) {
+            field.append(" when ").append(check.condition).append(" then '").append(check.field).append('\'');
+            message.append(" when ").append(check.condition).append(" then '").append(check.message).append('\'');
+        }
+        // условия проверяются только через case: он вычисляет их по порядку, и приведение года к числу
+        // выполняется только после проверки формата
+        return "update book_load set error_field = " + field + " end, error = " + message + " end " +
+                "where error is null and " + field + " end is not null";
+    }
+
+    /**
+     * Проверка поля записи: условие SQL, при выполнении которого запись отклоняется.
+     */
+    static final class Check {
+        private final String field;
+        private final String condition;
+        private final String message;
+
+        private Check(String field, String condition, String message) {
+            this.field = field;
+            this.condition = "(" + condition + ")";
+            this.message = message;
+        }
+    }
+
+    /**
+     * Количество и диапазон ID добавленных записей.
+     */
+    private static final class Created {
+        private final long count;
+        private final Long firstId;
+        private final Long lastId;
+
+        private Created(long count, Long firstId, Long lastId) {
+            this.count = count;
+            this.firstId = firstId;
+            this.lastId = lastId;
+        }
+
+        private static Created map(ResultSet rs, int rowNum) throws SQLException {
+            return new Created(rs.getLong(1), rs.getObject(2, Long.class), rs.getObject(3, Long.class));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.ChangeEventResponse;
+import com.kode.bookaccountingservice.dto.ChangeFeedResponse;
+import com.kode.bookaccountingservice.entity.ChangeEvent;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.repository.ChangeEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Сервис журнала изменений книг и авторов (transactional outbox).
+ * События записываются в таблицу change_events в транзакции изменения, публикуются ретранслятором
+ * ({@link ChangeRelay}) порциями с назначением порядковых номеров и выдаются потребителям по номеру,
+ * начиная с которого им нужны изменения.
+ */
+@Service
+public class ChangeFeedService {
+
+    private final ChangeEventRepository changeEventRepository;
+    private final int relayBatchSize;
+    private final Duration retention;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private volatile long lastSequence;
+
+    public ChangeFeedService(ChangeEventRepository changeEventRepository,
+                             @Value("${app.changes.relay.batch-size:1000}") int relayBatchSize,
+                             @Value("${app.changes.retention:7d}") Duration retention) {
+        this.changeEventRepository = changeEventRepository;
+        this.relayBatchSize = relayBatchSize;
+        this.retention = retention;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    /**
+     * Ключ advisory-блокировки, под которой работает ретранслятор; при нескольких экземплярах сервиса
+     * номера событиям назначает только один из них.
+     */
+    static final long RELAY_LOCK_KEY = 0x6368616e676573L;
+
+    /**
+     * Записывает событие в журнал в текущей транзакции: событие фиксируется или откатывается вместе с изменением.
+     * Неблокирующие сервисы (профиль reactive) изменяют данные без транзакции и пишут журнал тем же SQL-запросом,
+     * поэтому событие вне транзакции не записывается.
+     * @param event событие об изменении
+     */
+    @EventListener
+    public void record(CatalogChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        changeEventRepository.save(new ChangeEvent(event));
+    }
+
+    /**
+     * Получает опубликованные события после указанного номера.
+     * @param since номер последнего полученного события (0 — с начала журнала)
+     * @param limit максимальное количество событий (ограничивается сверху {@value #MAX_LIMIT})
+     * @return события и номер, с которого запрашивать следующую порцию
+     */
+    public ChangeFeedResponse getChanges(long since, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        List<ChangeEventResponse> items = changeEventRepository.findPublishedAfter(since, Limit.of(size));
+        return new ChangeFeedResponse(items, items.isEmpty() ? since : items.get(items.size() - 1).getSequence());
+    }
+
+    /**
+     * Ожидает публикации событий после указанного номера.
+     * Результат завершается первой непустой порцией; ограничение времени ожидания задает вызывающий код,
+     * отмена результата снимает ожидание.
+     * @param since номер последнего полученного события
+     * @param limit максимальное количество событий
+     * @return будущая порция событий
+     */
+    public CompletableFuture<ChangeFeedResponse> awaitChanges(long since, Integer limit) {
+        CompletableFuture<ChangeFeedResponse> result = new CompletableFuture<>();
+        Subscription subscription = new Subscription(since, limit, result::complete, true);
+        subscriptions.add(subscription);
+        result.whenComplete((changes, e) -> unsubscribe(subscription));
+        return result;
+    }
+
+    /**
+     * Подписывает потребителя на все события после указанного номера.
+     * Порции событий передаются потребителю в потоке ретранслятора; исключение потребителя отменяет подписку.
+     * @param since номер последнего полученного события
+     * @param consumer получатель порций событий
+     * @return подписка для отмены через {@link #unsubscribe}
+     */
+    public Subscription subscribe(long since, Consumer<ChangeFeedResponse> consumer) {
+        Subscription subscription = new Subscription(since, MAX_LIMIT, consumer, false);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Публикует порцию неопубликованных событий: назначает им порядковые номера под advisory-блокировкой.
+     * @return количество опубликованных событий; 0, если блокировку держит другой экземпляр сервиса
+     */
+    @Transactional
+    public int publishPending() {
+        if (!changeEventRepository.tryLock(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+        int published = changeEventRepository.assignSequences(relayBatchSize);
+        if (published > 0) {
+            log.debug("Опубликовано событий журнала изменений: {}", published);
+        }
+        return published;
+    }
+
+    /**
+     * Передает подписчикам события, опубликованные после их последнего полученного номера.
+     * События могли быть опубликованы любым экземпляром сервиса, поэтому последний номер читается из базы данных.
+     */
+    public void dispatch() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        lastSequence = Math.max(lastSequence, changeEventRepository.findLastSequence());
+        for (Subscription subscription : subscriptions) {
+            if (subscription.since >= lastSequence) {
+                continue;
+            }
+            try {
+                ChangeFeedResponse changes = getChanges(subscription.since, subscription.limit);
+                if (changes.getItems().isEmpty()) {
+                    continue;
+                }
+                subscription.since = changes.getSince();
+                subscription.consumer.accept(changes);
+                if (subscription.once) {
+                    unsubscribe(subscription);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Подписка на журнал изменений отменена: ошибка передачи событий", e);
+                unsubscribe(subscription);
+            }
+        }
+    }
+
+    /**
+     * Удаляет опубликованные события старше срока хранения.
+     * @return количество удаленных событий
+     */
+    @Transactional
+    public int deleteExpired() {
+        int deleted = changeEventRepository.deletePublishedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Удалено устаревших событий журнала изменений: {}", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Подписка на журнал изменений: номер последнего переданного события и получатель следующих порций.
+     */
+    public static final class Subscription {
+        private volatile long since;
+        private final Integer limit;
+        private final Consumer<ChangeFeedResponse> consumer;
+        private final boolean once;
+
+        private Subscription(long since, Integer limit, Consumer<ChangeFeedResponse> consumer, boolean once) {
+            this.since = since;
+            this.limit = limit;
+            this.consumer = consumer;
+            this.once = once;
+        }
+    }
+}
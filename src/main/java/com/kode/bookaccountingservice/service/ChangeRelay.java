@@ -0,0 +1,40 @@
+package com.kode.bookaccountingservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Ретранслятор журнала изменений: периодически публикует записанные события порциями
+ * и передает новые события подписчикам этого экземпляра сервиса.
+ */
+public class ChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeRelay.class);
+
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeRelay(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.relay.interval:200ms}")
+    public void relay() {
+        try {
+            changeFeedService.publishPending();
+            changeFeedService.dispatch();
+        } catch (DataAccessException e) {
+            log.warn("Публикация журнала изменений не выполнена", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-interval:1h}")
+    public void cleanup() {
+        try {
+            changeFeedService.deleteExpired();
+        } catch (DataAccessException e) {
+            log.warn("Очистка журнала изменений не выполнена", e);
+        }
+    }
+}
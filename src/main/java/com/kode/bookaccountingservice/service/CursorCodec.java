@@ -0,0 +1,47 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Кодирует и декодирует непрозрачные курсоры keyset-пагинации.
+ * Курсор хранит идентификатор последней выданной записи.
+ */
+public final class CursorCodec {
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Кодирует идентификатор последней записи страницы в курсор.
+     * @param lastId идентификатор последней записи
+     * @return курсор следующей страницы
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Декодирует курсор в идентификатор, после которого начинается страница.
+     * @param cursor курсор или null для первой страницы
+     * @return идентификатор последней выданной записи (0 для первой страницы)
+     * @throws InvalidCursorException если курсор некорректен
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (id < 0) {
+                throw new NumberFormatException();
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Некорректный курсор пагинации");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.AuthorDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.exception.WatermarkExpiredException;
+import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import com.kode.bookaccountingservice.service.WatermarkCodec.Watermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Сервис синхронизации каталога по водяной метке: клиент получает только записи, измененные
+ * после предыдущего запроса, вместо повторной выгрузки всего каталога.
+ * <p>
+ * Время изменения — время начала транзакции по часам базы данных, а видимой строка становится при фиксации.
+ * Поэтому изменения моложе окна безопасности (app.delta.safety-window) еще не выдаются: окно должно превышать
+ * длительность пишущих транзакций и отставание реплики, иначе медленная транзакция зафиксирует строку
+ * со временем раньше уже выданной метки. Удаленные книги хранятся app.delta.tombstone-retention;
+ * метка старше этого срока отклоняется, и клиент выполняет полную синхронизацию заново.
+ */
+@Service
+public class DeltaSyncService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final Duration safetyWindow;
+    private final Duration tombstoneRetention;
+
+    public DeltaSyncService(BookRepository bookRepository, AuthorRepository authorRepository,
+                            @Value("${app.delta.safety-window:10s}") Duration safetyWindow,
+                            @Value("${app.delta.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.safetyWindow = safetyWindow;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DeltaSyncService.class);
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 5000;
+
+    /**
+     * Получает книги, добавленные, измененные или удаленные после водяной метки.
+     * При первой синхронизации (без метки) удаленные книги не выдаются.
+     * @param since водяная метка предыдущего ответа или null для первой синхронизации
+     * @param limit максимальное количество книг (ограничивается сверху {@value #MAX_LIMIT})
+     * @return изменения и метка для следующего запроса
+     * @throws WatermarkExpiredException если метка старше срока хранения удаленных книг
+     */
+    @Transactional(readOnly = true)
+    public DeltaResponse<BookDeltaResponse> getBookChanges(String since, Integer limit) {
+        Watermark watermark = decode(since);
+        int size = limitOf(limit);
+        Instant before = Instant.now().minus(safetyWindow);
+        log.info("Получение изменений книг после {}", watermark.getUpdatedAt());
+        List<BookDeltaResponse> books = bookRepository.findChangedAfter(watermark.getUpdatedAt(), watermark.getId(),
+                before, watermark != Watermark.INITIAL, size + 1);
+        return toDelta(books, size, before, book -> new Watermark(book.getUpdatedAt(), book.getId()));
+    }
+
+    /**
+     * Получает авторов, добавленных после водяной метки.
+     * @param since водяная метка предыдущего ответа или null для первой синхронизации
+     * @param limit максимальное количество авторов (ограничивается сверху {@value #MAX_LIMIT})
+     * @return изменения и метка для следующего запроса
+     * @throws WatermarkExpiredException если метка старше срока хранения удаленных книг
+     */
+    @Transactional(readOnly = true)
+    public DeltaResponse<AuthorDeltaResponse> getAuthorChanges(String since, Integer limit) {
+        Watermark watermark = decode(since);
+        int size = limitOf(limit);
+        Instant before = Instant.now().minus(safetyWindow);
+        log.info("Получение изменений авторов после {}", watermark.getUpdatedAt());
+        List<AuthorDeltaResponse> authors = authorRepository.findChangedAfter(watermark.getUpdatedAt(),
+                watermark.getId(), before, Limit.of(size + 1));
+        return toDelta(authors, size, before, author -> new Watermark(author.getUpdatedAt(), author.getId()));
+    }
+
+    /**
+     * Окончательно удаляет книги, помеченные удаленными раньше срока хранения.
+     * @return количество удаленных книг
+     */
+    @Transactional
+    public int purgeTombstones() {
+        int purged = bookRepository.purgeDeletedBefore(Instant.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Окончательно удалено книг, помеченных удаленными: {}", purged);
+        }
+        return purged;
+    }
+
+    private Watermark decode(String since) {
+        Watermark watermark = WatermarkCodec.decode(since);
+        if (watermark != Watermark.INITIAL
+                && watermark.getUpdatedAt().isBefore(Instant.now().minus(tombstoneRetention))) {
+            throw new WatermarkExpiredException("Водяная метка устарела: удаленные после нее книги уже не хранятся, " +
+                    "выполните синхронизацию заново без параметра since");
+        }
+        return watermark;
+    }
+
+    private static int limitOf(Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+
+    /**
+     * Отрезает лишнюю запись и вычисляет метку следующего запроса. Если выданы все изменения до границы окна,
+     * метка переносится на границу: так метка клиента, который регулярно синхронизируется, не устаревает,
+     * даже если каталог не меняется.
+     */
+    private static <T> DeltaResponse<T> toDelta(List<T> items, int size, Instant before,
+                                                Function<T, Watermark> watermarkOf) {
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            return new DeltaResponse<>(items, WatermarkCodec.encode(watermarkOf.apply(items.get(size - 1))), true);
+        }
+        return new DeltaResponse<>(items, WatermarkCodec.encode(new Watermark(before, 0L)), false);
+    }
+}
@@ -0,0 +1,115 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.exception.AuthorAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий сервис для работы с авторами (профиль reactive).
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthorService {
+
+    private final DatabaseClient databaseClient;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReactiveAuthorService(DatabaseClient databaseClient, ApplicationEventPublisher eventPublisher) {
+        this.databaseClient = databaseClient;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveAuthorService.class);
+
+    /**
+     * Добавляет нового автора одним запросом, который также пишет событие в журнал изменений.
+     * @param authorRequest данные автора
+     * @return пустой результат или ошибка {@link AuthorAlreadyExistsException}
+     */
+    public Mono<Void> addAuthor(AuthorRequest authorRequest) {
+        log.info("Добавление нового автора {}", authorRequest.getName());
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("with inserted as (insert into authors (id, name, birth_year) " +
+                        "values (nextval('author_seq'), :name, :birthYear) on conflict (name) do nothing returning id), " +
+                        "recorded as (insert into change_events (id, entity, entity_id, operation, name) " +
+                        "select nextval('change_event_seq'), 'AUTHOR', id, 'SAVED', :name from inserted) " +
+                        "select id from inserted")
+                .bind("name", authorRequest.getName());
+        insert = authorRequest.getBirthYear() != null
+                ? insert.bind("birthYear", authorRequest.getBirthYear())
+                : insert.bindNull("birthYear", Integer.class);
+        return insert.map(row -> row.get("id", Long.class))
+                .one()
+                .doOnNext(id -> {
+                    log.info("Автор добавлен с ID {}", id);
+                    eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.AUTHOR, id,
+                            authorRequest.getName()));
+                })
+                .switchIfEmpty(Mono.error(() -> new AuthorAlreadyExistsException("Автор с таким именем уже добавлен в базу")))
+                .then();
+    }
+
+    /**
+     * Получает страницу авторов, упорядоченных по ID, начиная после курсора.
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value AuthorService#MAX_PAGE_SIZE})
+     * @return страница авторов с курсором следующей страницы
+     */
+    public Mono<CursorPageResponse<AuthorResponse>> getAuthorsPage(String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = AuthorService.pageSize(limit);
+        log.info("Получение страницы авторов после ID {}", afterId);
+        return databaseClient.sql("select id, name, birth_year from authors where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", size + 1)
+                .map(row -> new AuthorResponse(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("birth_year", Integer.class)))
+                .all()
+                .collectList()
+                .map(authors -> {
+                    String next = null;
+                    if (authors.size() > size) {
+                        authors = authors.subList(0, size);
+                        next = CursorCodec.encode(authors.get(size - 1).getId());
+                    }
+                    return new CursorPageResponse<>(authors, next);
+                });
+    }
+
+    /**
+     * Получает автора по ID вместе с версией записи.
+     * @param id идентификатор автора
+     * @return автор или ошибка {@link AuthorNotFoundException}
+     */
+    public Mono<AuthorResponse> getAuthorById(Long id) {
+        log.info("Поиск автора по указанному идентификатору");
+        return databaseClient.sql("select id, name, birth_year, version from authors where id = :id")
+                .bind("id", id)
+                .map(row -> new AuthorResponse(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("birth_year", Integer.class), row.get("version", Long.class)))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new AuthorNotFoundException("Автор с ID " + id + " не найден")));
+    }
+
+    /**
+     * Получает текущую версию автора без чтения остальных данных.
+     * @param id идентификатор автора
+     * @return версия автора или ошибка {@link AuthorNotFoundException}
+     */
+    public Mono<Long> getAuthorVersion(Long id) {
+        return databaseClient.sql("select version from authors where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new AuthorNotFoundException("Автор с ID " + id + " не найден")));
+    }
+}
@@ -0,0 +1,243 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
+import com.kode.bookaccountingservice.exception.BookAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.BookNotFoundException;
+import com.kode.bookaccountingservice.exception.BookVersionMismatchException;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий сервис для работы с книгами (профиль reactive).
+ * Запросы выполняются через R2DBC теми же SQL-запросами, что и в {@link BookService};
+ * каждое изменение — один запрос, который также пишет событие в журнал изменений, поэтому транзакции не используются.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookService {
+
+    /**
+     * Выборка неудаленных книг; удаленные остаются в таблице только для синхронизации каталога (см. {@link DeltaSyncService})
+     */
+    private static final String COLUMNS = "select id, title, author_id, year, genre from books where deleted = false ";
+
+    /**
+     * Запись события о книге в журнал изменений в том же запросе (см. {@link ChangeFeedService})
+     */
+    private static final String RECORD_CHANGE = "recorded as (insert into change_events (id, entity, entity_id, operation, name) " +
+            "select nextval('change_event_seq'), 'BOOK', %s, '%s', %s from %s) ";
+
+    private final DatabaseClient databaseClient;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReactiveBookService(DatabaseClient databaseClient, ApplicationEventPublisher eventPublisher) {
+        this.databaseClient = databaseClient;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveBookService.class);
+
+    /**
+     * Добавляет новую книгу одним запросом; наличие автора проверяется, только если книга не добавлена.
+     * @param bookRequest данные книги
+     * @return пустой результат или ошибка {@link BookAlreadyExistsException}, {@link AuthorNotFoundException}
+     */
+    public Mono<Void> addBook(BookRequest bookRequest) {
+        log.info("Добавление новой книги {}", bookRequest.getTitle());
+        return databaseClient.sql("with inserted as (insert into books (id, title, author_id, year, genre) " +
+                        "select nextval('book_seq'), :title, a.id, :year, :genre from authors a where a.id = :authorId " +
+                        "on conflict (title) where deleted = false do nothing returning id), " +
+                        RECORD_CHANGE.formatted("id", "SAVED", ":title", "inserted") +
+                        "select id from inserted")
+                .bind("title", bookRequest.getTitle())
+                .bind("year", bookRequest.getYear())
+                .bind("genre", bookRequest.getGenre())
+                .bind("authorId", bookRequest.getAuthorId())
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .doOnNext(id -> {
+                    log.info("Книга добавлена с ID {}", id);
+                    eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, id,
+                            bookRequest.getTitle()));
+                })
+                .switchIfEmpty(Mono.defer(() -> authorExists(bookRequest.getAuthorId())
+                        .flatMap(exists -> Mono.error(exists
+                                ? new BookAlreadyExistsException("Книга с таким наименованием уже добавлена в базу")
+                                : new AuthorNotFoundException("Автор с ID" + bookRequest.getAuthorId() + " не найден: ")))))
+                .then();
+    }
+
+    /**
+     * Получает страницу книг, упорядоченных по ID, начиная после курсора.
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value BookService#MAX_PAGE_SIZE})
+     * @return страница книг с курсором следующей страницы
+     */
+    public Mono<CursorPageResponse<BookResponse>> getBooksPage(String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = BookService.pageSize(limit);
+        log.info("Получение страницы книг после ID {}", afterId);
+        return databaseClient.sql(COLUMNS + "and id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", size + 1)
+                .map(ReactiveBookService::toResponse)
+                .all()
+                .collectList()
+                .map(books -> BookService.toPage(books, size));
+    }
+
+    /**
+     * Получает страницу книг автора, упорядоченных по ID, начиная после курсора.
+     * @param authorId идентификатор автора
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param limit количество записей на страницу (ограничивается сверху {@value BookService#MAX_PAGE_SIZE})
+     * @return страница книг автора или ошибка {@link AuthorNotFoundException}
+     */
+    public Mono<CursorPageResponse<BookResponse>> getAuthorBooks(Long authorId, String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int size = BookService.pageSize(limit);
+        log.info("Получение страницы книг автора {} после ID {}", authorId, afterId);
+        return databaseClient.sql(COLUMNS + "and author_id = :authorId and id > :afterId order by id limit :limit")
+                .bind("authorId", authorId)
+                .bind("afterId", afterId)
+                .bind("limit", size + 1)
+                .map(ReactiveBookService::toResponse)
+                .all()
+                .collectList()
+                .flatMap(books -> books.isEmpty()
+                        ? authorExists(authorId).flatMap(exists -> exists
+                                ? Mono.just(BookService.toPage(books, size))
+                                : Mono.error(new AuthorNotFoundException("Автор с ID " + authorId + " не найден")))
+                        : Mono.just(BookService.toPage(books, size)));
+    }
+
+    /**
+     * Выдает все книги, упорядоченные по ID, по мере чтения из базы данных.
+     * Строки читаются порциями по запросу подписчика, поэтому медленный клиент не приводит к накоплению данных в памяти.
+     * @return поток книг
+     */
+    public Flux<BookResponse> streamAllBooks() {
+        log.info("Потоковая выдача всех книг");
+        return databaseClient.sql(COLUMNS + "order by id")
+                .filter(statement -> statement.fetchSize(500))
+                .map(ReactiveBookService::toResponse)
+                .all();
+    }
+
+    /**
+     * Получает книгу по ID вместе с версией записи.
+     * @param id идентификатор книги
+     * @return книга или ошибка {@link BookNotFoundException}
+     */
+    public Mono<BookResponse> getBookById(Long id) {
+        log.info("Получение книги по идентификатору {}", id);
+        return databaseClient.sql("select id, title, author_id, year, genre, version from books where id = :id and deleted = false")
+                .bind("id", id)
+                .map(row -> new BookResponse(row.get("id", Long.class), row.get("title", String.class),
+                        row.get("author_id", Long.class), row.get("year", Integer.class), row.get("genre", String.class),
+                        row.get("version", Long.class)))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new BookNotFoundException("Книга с ID " + id + " не найдена")));
+    }
+
+    /**
+     * Получает текущую версию книги без чтения остальных данных.
+     * @param id идентификатор книги
+     * @return версия книги или ошибка {@link BookNotFoundException}
+     */
+    public Mono<Long> getBookVersion(Long id) {
+        return findVersion(id)
+                .switchIfEmpty(Mono.error(() -> new BookNotFoundException("Книга с ID " + id + " не найдена")));
+    }
+
+    /**
+     * Обновляет информацию о книге одним запросом, увеличивая версию записи.
+     * Если книга не обновлена, причина (нет книги или другая версия) определяется отдельным запросом.
+     * @param id идентификатор книги
+     * @param bookRequest новые данные книги
+     * @param expectedVersion версия, которую видел клиент, или null, если проверка не нужна
+     * @return новая версия книги или ошибка {@link BookNotFoundException}, {@link BookVersionMismatchException}
+     */
+    public Mono<Long> updateBook(Long id, BookRequest bookRequest, Long expectedVersion) {
+        log.info("Обновляются данные о книге #{}", id);
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql("with updated as (update books " +
+                        "set title = :title, year = :year, genre = :genre, version = version + 1, updated_at = current_timestamp " +
+                        "where id = :id and deleted = false" +
+                        (expectedVersion != null ? " and version = :expectedVersion" : "") + " returning id, version), " +
+                        RECORD_CHANGE.formatted("id", "SAVED", ":title", "updated") +
+                        "select version from updated")
+                .bind("title", bookRequest.getTitle())
+                .bind("year", bookRequest.getYear())
+                .bind("genre", bookRequest.getGenre())
+                .bind("id", id);
+        if (expectedVersion != null) {
+            update = update.bind("expectedVersion", expectedVersion);
+        }
+        return update.map(row -> row.get("version", Long.class))
+                .one()
+                .doOnNext(version -> {
+                    log.info("Данные о книге обновлены");
+                    eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, id,
+                            bookRequest.getTitle()));
+                })
+                .switchIfEmpty(Mono.defer(() -> findVersion(id)
+                        .flatMap(version -> Mono.<Long>error(new BookVersionMismatchException(
+                                "Книга с ID " + id + " была изменена: текущая версия " + version)))
+                        .switchIfEmpty(Mono.error(() -> new BookNotFoundException("Книга с ID " + id + " не найдена")))));
+    }
+
+    /**
+     * Помечает книгу удаленной по ID.
+     * @param id идентификатор книги
+     * @return пустой результат или ошибка {@link BookNotFoundException}
+     */
+    public Mono<Void> deleteBook(Long id) {
+        log.info("Удаление данных о книге #{}", id);
+        return databaseClient.sql("with deleted as (update books set deleted = true, updated_at = current_timestamp, version = version + 1 " +
+                        "where id = :id and deleted = false returning id), " +
+                        RECORD_CHANGE.formatted("id", "DELETED", "null", "deleted") +
+                        "select count(*) from deleted")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(deleted -> {
+                    if (deleted == 0) {
+                        return Mono.error(new BookNotFoundException("Книга с ID " + id + " не найдена"));
+                    }
+                    eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.BOOK, id));
+                    log.info("Данные о книге удалены");
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Long> findVersion(Long id) {
+        return databaseClient.sql("select version from books where id = :id and deleted = false")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    private Mono<Boolean> authorExists(Long authorId) {
+        return databaseClient.sql("select count(*) from authors where id = :id")
+                .bind("id", authorId)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+
+    private static BookResponse toResponse(Readable row) {
+        return new BookResponse(row.get("id", Long.class), row.get("title", String.class),
+                row.get("author_id", Long.class), row.get("year", Integer.class), row.get("genre", String.class));
+    }
+}
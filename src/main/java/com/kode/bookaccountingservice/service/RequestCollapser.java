@@ -0,0 +1,132 @@
+package com.kode.bookaccountingservice.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Объединяет одновременные запросы записей по ключу в один пакетный запрос.
+ * Первый запрос открывает пакет и выполняет пакетный запрос в своем потоке, передавая результаты остальным
+ * запросам пакета; отдельный пул потоков не нужен. Если другой пакет в этот момент уже выполняется, первый запрос
+ * сначала ждет окно сбора (или заполнения пакета), поэтому без нагрузки запрос не задерживается.
+ * Нулевое окно отключает ожидание.
+ * @param <K> тип ключа
+ * @param <V> тип записи
+ */
+public class RequestCollapser<K, V> {
+
+    private final Function<Collection<K>, Map<K, V>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger executing = new AtomicInteger();
+    private Batch<K, V> current;
+
+    /**
+     * @param batchLoader пакетный запрос: ключи пакета без повторов, результат — найденные записи по ключам
+     * @param window окно сбора запросов в пакет, пока выполняется предыдущий пакет
+     * @param maxBatchSize наибольшее количество ключей в пакете; заполненный пакет выполняется, не дожидаясь окна
+     */
+    public RequestCollapser(Function<Collection<K>, Map<K, V>> batchLoader, Duration window, int maxBatchSize) {
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Получает запись по ключу в составе пакета.
+     * @param key ключ записи
+     * @return запись или пустой Optional, если она не найдена
+     * @throws RuntimeException исключение пакетного запроса
+     * @throws Error ошибка пакетного запроса
+     */
+    public Optional<V> load(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<Optional<V>> result;
+        boolean leader = false;
+        lock.lock();
+        try {
+            if (current == null) {
+                current = new Batch<>();
+                leader = true;
+            }
+            batch = current;
+            result = batch.results.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.results.size() >= maxBatchSize) {
+                current = null;
+                batch.full.complete(null);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            if (executing.get() > 0) {
+                awaitWindow(batch);
+            }
+            lock.lock();
+            try {
+                if (current == batch) {
+                    current = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            executing.incrementAndGet();
+            try {
+                batch.execute(batchLoader);
+            } finally {
+                executing.decrementAndGet();
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        if (windowNanos <= 0) {
+            return;
+        }
+        try {
+            batch.full.get(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // окно истекло: пакет выполняется с собранными ключами
+        } catch (InterruptedException e) {
+            // остальные запросы пакета ждут его результата, поэтому пакет все равно выполняется
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ключи пакета с ожидающими их результатами; после закрытия пакета новые ключи не добавляются.
+     */
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<Optional<V>>> results = new LinkedHashMap<>();
+        private final CompletableFuture<Void> full = new CompletableFuture<>();
+
+        private void execute(Function<Collection<K>, Map<K, V>> batchLoader) {
+            try {
+                Map<K, V> found = batchLoader.apply(results.keySet());
+                results.forEach((key, result) -> result.complete(Optional.ofNullable(found.get(key))));
+            } catch (Throwable e) {
+                // и Error передается всем запросам пакета: иначе остальные запросы ждали бы результата бесконечно
+                results.values().forEach(result -> result.completeExceptionally(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Индекс подсказок по началу наименований книг и имен авторов.
+ * Нормализованные строки хранятся в отсортированном конкурентном словаре: поиск по префиксу —
+ * это выборка диапазона ключей за O(log n), а добавление, изменение и удаление применяются
+ * по одной записи без перестроения индекса и без блокировки чтения.
+ */
+public class SuggestIndex {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, SuggestionResponse> entries = new ConcurrentSkipListMap<>();
+    private final Map<SuggestionResponse.Type, ConcurrentHashMap<Long, String>> keys =
+            new EnumMap<>(SuggestionResponse.Type.class);
+
+    public SuggestIndex() {
+        for (SuggestionResponse.Type type : SuggestionResponse.Type.values()) {
+            keys.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Добавляет подсказку или заменяет прежнюю подсказку для той же книги или того же автора.
+     * @param suggestion подсказка
+     */
+    public void put(SuggestionResponse suggestion) {
+        String normalized = normalize(suggestion.getText());
+        if (normalized.isEmpty()) {
+            remove(suggestion.getType(), suggestion.getId());
+            return;
+        }
+        // ID в ключе различает записи с одинаковым наименованием
+        String key = normalized + SEPARATOR + suggestion.getType().ordinal() + suggestion.getId();
+        keys.get(suggestion.getType()).compute(suggestion.getId(), (id, previous) -> {
+            if (previous != null && !previous.equals(key)) {
+                entries.remove(previous);
+            }
+            entries.put(key, suggestion);
+            return key;
+        });
+    }
+
+    /**
+     * Удаляет подсказку для книги или автора.
+     * @param type тип подсказки
+     * @param id идентификатор книги или автора
+     */
+    public void remove(SuggestionResponse.Type type, long id) {
+        keys.get(type).computeIfPresent(id, (key, previous) -> {
+            entries.remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Ищет подсказки, нормализованный текст которых начинается с нормализованной строки запроса.
+     * @param query строка запроса
+     * @param limit максимальное количество подсказок
+     * @return подсказки в алфавитном порядке
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        List<SuggestionResponse> result = new ArrayList<>(Math.min(limit, 16));
+        for (SuggestionResponse suggestion : entries.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(suggestion);
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        keys.values().forEach(Map::clear);
+    }
+
+    /**
+     * Приводит строку к нижнему регистру, заменяет «ё» на «е», знаки препинания — на пробелы
+     * и схлопывает повторяющиеся пробелы.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (space && builder.length() > 0) {
+                    builder.append(' ');
+                }
+                builder.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.event.CatalogLoadedEvent;
+import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Сервис подсказок при вводе наименований книг и имен авторов.
+ * Индекс хранится в памяти: строится при запуске приложения и обновляется
+ * после фиксации транзакций, изменивших книги или авторов.
+ * Изменения, зафиксированные до окончания построения, откладываются и применяются после него:
+ * иначе построение записало бы поверх них прочитанные раньше значения.
+ * Подсказки нужны только веб-контроллерам, поэтому при загрузке каталога из командной строки
+ * сервис не создается и индекс не строится.
+ */
+@Service
+@ConditionalOnWebApplication
+public class SuggestService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final SuggestIndex suggestIndex = new SuggestIndex();
+    /**
+     * Обновления индекса, полученные до окончания его построения; null, когда индекс построен.
+     */
+    private List<Runnable> pendingUpdates = new ArrayList<>();
+
+    public SuggestService(BookRepository bookRepository, AuthorRepository authorRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestService.class);
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    /**
+     * Строит индекс по всем книгам и авторам, читая их курсором базы данных,
+     * затем применяет обновления, полученные за время построения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        log.info("Построение индекса подсказок");
+        try {
+            try (Stream<SuggestionResponse> books = bookRepository.streamSuggestions()) {
+                books.forEach(suggestIndex::put);
+            }
+            try (Stream<SuggestionResponse> authors = authorRepository.streamSuggestions()) {
+                authors.forEach(suggestIndex::put);
+            }
+        } finally {
+            synchronized (this) {
+                log.info("Применение обновлений, полученных во время построения индекса подсказок: {}",
+                        pendingUpdates.size());
+                pendingUpdates.forEach(Runnable::run);
+                pendingUpdates = null;
+            }
+        }
+        log.info("Индекс подсказок построен, записей: {}", suggestIndex.size());
+    }
+
+    /**
+     * Применяет обновление к индексу или откладывает его, если индекс еще строится.
+     */
+    private void update(Runnable update) {
+        synchronized (this) {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+
+    /**
+     * Применяет изменение книги или автора к индексу после фиксации транзакции.
+     * @param event событие об изменении
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        SuggestionResponse.Type type = event.getEntity() == CatalogChangedEvent.Entity.BOOK
+                ? SuggestionResponse.Type.BOOK
+                : SuggestionResponse.Type.AUTHOR;
+        if (event.isDeleted()) {
+            update(() -> suggestIndex.remove(type, event.getId()));
+        } else {
+            SuggestionResponse suggestion = new SuggestionResponse(type, event.getId(), event.getName());
+            update(() -> suggestIndex.put(suggestion));
+        }
+    }
+
+    /**
+     * Добавляет в индекс книги и авторов из диапазонов ID массовой загрузки после ее фиксации.
+     * @param event событие о массовой загрузке
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogLoaded(CatalogLoadedEvent event) {
+        update(() -> putLoaded(event));
+    }
+
+    private void putLoaded(CatalogLoadedEvent event) {
+        if (event.getFirstBookId() != null) {
+            try (Stream<SuggestionResponse> books = bookRepository.streamSuggestions(event.getFirstBookId(), event.getLastBookId())) {
+                books.forEach(suggestIndex::put);
+            }
+        }
+        if (event.getFirstAuthorId() != null) {
+            try (Stream<SuggestionResponse> authors = authorRepository.streamSuggestions(event.getFirstAuthorId(),
+                    event.getLastAuthorId())) {
+                authors.forEach(suggestIndex::put);
+            }
+        }
+        log.info("Индекс подсказок обновлен после массовой загрузки, записей: {}", suggestIndex.size());
+    }
+
+    /**
+     * Ищет книги и авторов, наименование которых начинается со строки запроса.
+     * Регистр, буква «ё» и знаки препинания не учитываются.
+     * @param query строка запроса
+     * @param limit максимальное количество подсказок (ограничивается сверху {@value #MAX_LIMIT})
+     * @return подсказки в алфавитном порядке
+     */
+    public List<SuggestionResponse> suggest(String query, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return suggestIndex.suggest(query, size);
+    }
+}
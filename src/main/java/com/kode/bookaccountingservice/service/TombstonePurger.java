@@ -0,0 +1,29 @@
+package com.kode.bookaccountingservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Периодически удаляет книги, помеченные удаленными дольше срока хранения (см. {@link DeltaSyncService}).
+ */
+public class TombstonePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstonePurger.class);
+
+    private final DeltaSyncService deltaSyncService;
+
+    public TombstonePurger(DeltaSyncService deltaSyncService) {
+        this.deltaSyncService = deltaSyncService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.delta.purge-interval:1h}")
+    public void purge() {
+        try {
+            deltaSyncService.purgeTombstones();
+        } catch (DataAccessException e) {
+            log.warn("Очистка удаленных книг не выполнена", e);
+        }
+    }
+}
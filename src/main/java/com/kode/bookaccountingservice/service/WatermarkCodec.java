@@ -0,0 +1,82 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Кодирует и декодирует непрозрачные водяные метки синхронизации каталога.
+ * Метка хранит время изменения (с точностью до микросекунд, как в PostgreSQL) и идентификатор
+ * последней выданной записи: записи упорядочены по паре (updated_at, id).
+ */
+public final class WatermarkCodec {
+
+    private WatermarkCodec() {
+    }
+
+    /**
+     * Положение в порядке изменений: время изменения и идентификатор записи
+     */
+    public static final class Watermark {
+        /**
+         * Начало каталога: метка первой синхронизации
+         */
+        public static final Watermark INITIAL = new Watermark(Instant.EPOCH, 0L);
+
+        private final Instant updatedAt;
+        private final long id;
+
+        public Watermark(Instant updatedAt, long id) {
+            this.updatedAt = updatedAt.truncatedTo(ChronoUnit.MICROS);
+            this.id = id;
+        }
+
+        public Instant getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Кодирует положение последней выданной записи в водяную метку.
+     * @param watermark время изменения и идентификатор записи
+     * @return водяная метка для следующего запроса
+     */
+    public static String encode(Watermark watermark) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, watermark.getUpdatedAt());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((micros + ":" + watermark.getId()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Декодирует водяную метку.
+     * @param watermark метка или null для первой синхронизации
+     * @return положение, после которого выдаются изменения
+     * @throws InvalidCursorException если метка некорректна
+     */
+    public static Watermark decode(String watermark) {
+        if (watermark == null || watermark.isBlank()) {
+            return Watermark.INITIAL;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 2) {
+                throw new NumberFormatException();
+            }
+            long micros = Long.parseLong(parts[0]);
+            long id = Long.parseLong(parts[1]);
+            if (micros < 0 || id < 0) {
+                throw new NumberFormatException();
+            }
+            return new Watermark(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), id);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new InvalidCursorException("Некорректная водяная метка синхронизации");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.kode.bookaccountingservice;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Базовый класс тестов на встроенном PostgreSQL. Схема создается миграциями Liquibase, как в рабочем окружении,
+ * поэтому проверяются настоящие индексы, ограничения и запросы, которые H2 не выполняет (on conflict, COPY).
+ * Сервер запускается один раз на все тесты; если он не запускается, тесты пропускаются.
+ * Тесты разных классов работают с одной базой, поэтому каждый класс очищает таблицы перед заполнением.
+ */
+public abstract class EmbeddedPostgresSupport {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    // сервер остановится вместе с процессом
+                }
+            }));
+            return postgres;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @BeforeAll
+    static void assumePostgresStarted() {
+        assumeTrue(POSTGRES != null, "Встроенный PostgreSQL не запустился");
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        if (POSTGRES == null) {
+            return;
+        }
+        registry.add("SPRING_DATASOURCE_HOST", () -> "localhost");
+        registry.add("SPRING_DATASOURCE_PORT", POSTGRES::getPort);
+        registry.add("SPRING_DATASOURCE_DB", () -> "postgres");
+        registry.add("SPRING_DATASOURCE_USERNAME", () -> "postgres");
+        registry.add("SPRING_DATASOURCE_PASSWORD", () -> "postgres");
+        registry.add("app.changes.relay.enabled", () -> "false");
+        registry.add("app.delta.purge.enabled", () -> "false");
+    }
+
+    /**
+     * Удаляет книги, авторов и события журнала изменений, оставленные предыдущими тестами.
+     */
+    protected static void clean(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("truncate table books, authors, change_events");
+    }
+}
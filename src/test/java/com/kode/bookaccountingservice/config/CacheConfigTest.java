@@ -0,0 +1,44 @@
+package com.kode.bookaccountingservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private static final String SPEC = "maximumSize=2";
+
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @Test
+    void enabledCacheStoresValues() {
+        CacheManager cacheManager = cacheConfig.cacheManager(true, SPEC, true, SPEC);
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        assertNotNull(books);
+        books.put(1L, "book");
+        assertEquals("book", books.get(1L, String.class));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfig.BOOKS));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfig.AUTHORS));
+    }
+
+    @Test
+    void disabledCacheFallsBackToNoOp() {
+        CacheManager cacheManager = cacheConfig.cacheManager(true, SPEC, false, SPEC);
+        assertFalse(cacheManager.getCacheNames().contains(CacheConfig.AUTHORS));
+        Cache authors = cacheManager.getCache(CacheConfig.AUTHORS);
+        assertNotNull(authors);
+        authors.put(1L, "author");
+        assertNull(authors.get(1L));
+    }
+
+    @Test
+    void evictedEntryIsRemoved() {
+        CacheManager cacheManager = cacheConfig.cacheManager(true, SPEC, true, SPEC);
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        books.put(1L, "book");
+        books.evict(1L);
+        assertNull(books.get(1L));
+    }
+}
@@ -0,0 +1,66 @@
+package com.kode.bookaccountingservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    @Test
+    void connectionsAboveLimitTimeOut() throws SQLException {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofMillis(10));
+
+        Connection connection = dataSource.getConnection();
+
+        assertEquals(0, dataSource.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        connection.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+        dataSource.getConnection().close();
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void repeatedCloseReleasesPermitOnce() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 2, Duration.ofMillis(10));
+
+        Connection limited = dataSource.getConnection();
+        limited.close();
+        limited.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void failedConnectionReleasesPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("нет соединения"));
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofMillis(10));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void unwrapReturnsProxyForConnectionInterface() throws SQLException {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofMillis(10));
+
+        Connection limited = dataSource.getConnection();
+
+        assertSame(limited, limited.unwrap(Connection.class));
+    }
+}
@@ -0,0 +1,55 @@
+package com.kode.bookaccountingservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.metrics.TimedJsonHttpMessageConverter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MappingJackson2HttpMessageConverter converter =
+            new MetricsConfig().mappingJackson2HttpMessageConverter(new ObjectMapper(), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void serializationIsTimedPerUri() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/books/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new BookResponse(1L, "Книга", 2L, 2000, "Роман"), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertTrue(outputMessage.getBodyAsString().contains("\"title\":\"Книга\""));
+        Timer timer = meterRegistry.find(TimedJsonHttpMessageConverter.METRIC_NAME).tag("uri", "/books/{id}").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void serializationOutsideRequestIsTaggedUnknown() throws IOException {
+        converter.write(new BookResponse(), MediaType.APPLICATION_JSON, new MockHttpOutputMessage());
+
+        assertNotNull(meterRegistry.find(TimedJsonHttpMessageConverter.METRIC_NAME).tag("uri", "UNKNOWN").timer());
+    }
+}
@@ -0,0 +1,44 @@
+package com.kode.bookaccountingservice.config;
+
+import com.kode.bookaccountingservice.dto.BookResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializationConfigTest {
+
+    private final SerializationConfig serializationConfig = new SerializationConfig();
+
+    @Test
+    void smileRoundTrip() throws IOException {
+        assertRoundTrip(serializationConfig.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+                new MediaType("application", "x-jackson-smile"));
+    }
+
+    @Test
+    void cborRoundTrip() throws IOException {
+        assertRoundTrip(serializationConfig.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+                MediaType.APPLICATION_CBOR);
+    }
+
+    private static void assertRoundTrip(AbstractJackson2HttpMessageConverter converter, MediaType mediaType)
+            throws IOException {
+        assertTrue(converter.canWrite(BookResponse.class, mediaType));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(new BookResponse(1L, "Книга", 2L, 2000, "Роман", 3L), mediaType, outputMessage);
+        byte[] body = outputMessage.getBodyAsBytes();
+
+        BookResponse book = (BookResponse) converter.read(BookResponse.class, new MockHttpInputMessage(body));
+
+        assertEquals("Книга", book.getTitle());
+        assertEquals(2L, book.getAuthorId());
+        assertNull(book.getVersion());
+    }
+}
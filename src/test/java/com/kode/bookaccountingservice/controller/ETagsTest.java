@@ -0,0 +1,26 @@
+package com.kode.bookaccountingservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void ifNoneMatchUsesWeakComparison() {
+        assertTrue(ETags.matchesIfNoneMatch("\"3\"", 3));
+        assertTrue(ETags.matchesIfNoneMatch("W/\"3\"", 3));
+        assertTrue(ETags.matchesIfNoneMatch("\"1\", \"3\"", 3));
+        assertTrue(ETags.matchesIfNoneMatch("*", 3));
+        assertFalse(ETags.matchesIfNoneMatch("\"2\"", 3));
+    }
+
+    @Test
+    void ifMatchParsesSingleStrongTag() {
+        assertNull(ETags.expectedVersion(null));
+        assertNull(ETags.expectedVersion("*"));
+        assertEquals(7L, ETags.expectedVersion("\"7\""));
+        assertEquals(-1L, ETags.expectedVersion("W/\"7\""));
+        assertEquals(-1L, ETags.expectedVersion("\"abc\""));
+    }
+}
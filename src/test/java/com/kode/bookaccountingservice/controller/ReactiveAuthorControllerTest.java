@@ -0,0 +1,190 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.exception.AuthorAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
+import com.kode.bookaccountingservice.service.AuthorService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.DeltaSyncService;
+import com.kode.bookaccountingservice.service.ReactiveAuthorService;
+import com.kode.bookaccountingservice.service.ReactiveBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяет, что неблокирующий контроллер авторов отвечает так же, как {@link AuthorController}:
+ * коды ответа, ошибки проверки данных, ETag и условные заголовки.
+ */
+@WebFluxTest(ReactiveAuthorController.class)
+class ReactiveAuthorControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveAuthorService reactiveAuthorService;
+
+    @MockitoBean
+    private ReactiveBookService reactiveBookService;
+
+    @MockitoBean
+    private AuthorService authorService;
+
+    @MockitoBean
+    private DeltaSyncService deltaSyncService;
+
+    @MockitoBean
+    private CatalogExportService catalogExportService;
+
+    @Test
+    void addAuthor_ValidRequest_ReturnsOk() {
+        when(reactiveAuthorService.addAuthor(any())).thenReturn(Mono.empty());
+
+        webTestClient.post().uri("/authors").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Пушкин\",\"birthYear\":1799}")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(reactiveAuthorService).addAuthor(argThat(request -> request.getName().equals("Пушкин")
+                && request.getBirthYear() == 1799));
+    }
+
+    @Test
+    void addAuthor_InvalidRequest_ReturnsFieldErrors() {
+        webTestClient.post().uri("/authors").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Пу\",\"birthYear\":3000}")
+                .exchange()
+                // ошибки проверки выдаются тем же RestExceptionHandler, что и в AuthorController
+                .expectBody()
+                .jsonPath("$.errors.name").isEqualTo("Имя не должно быть меньше 3 больше 100 символов")
+                .jsonPath("$.errors.birthYear").isEqualTo("Год рождения не должен быть больше текущего");
+
+        verifyNoInteractions(reactiveAuthorService);
+    }
+
+    @Test
+    void addAuthor_ExistingName_ReturnsConflict() {
+        when(reactiveAuthorService.addAuthor(any()))
+                .thenReturn(Mono.error(new AuthorAlreadyExistsException("Автор с таким именем уже добавлен в базу")));
+
+        webTestClient.post().uri("/authors").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Пушкин\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody(String.class).isEqualTo("Автор с таким именем уже добавлен в базу");
+    }
+
+    @Test
+    void getAuthorById_ReturnsAuthorWithETag() {
+        when(reactiveAuthorService.getAuthorById(1L)).thenReturn(Mono.just(new AuthorResponse(1L, "Пушкин", 1799, 2L)));
+
+        webTestClient.get().uri("/authors/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Пушкин")
+                .jsonPath("$.birthYear").isEqualTo(1799);
+    }
+
+    @Test
+    void getAuthorById_MatchingIfNoneMatch_ReturnsNotModified() {
+        when(reactiveAuthorService.getAuthorVersion(1L)).thenReturn(Mono.just(2L));
+
+        webTestClient.get().uri("/authors/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\", \"2\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"");
+
+        verify(reactiveAuthorService, never()).getAuthorById(any());
+    }
+
+    @Test
+    void getAuthorById_Missing_ReturnsNotFound() {
+        when(reactiveAuthorService.getAuthorVersion(1L))
+                .thenReturn(Mono.error(new AuthorNotFoundException("Автор с ID 1 не найден")));
+
+        webTestClient.get().uri("/authors/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Автор с ID 1 не найден");
+    }
+
+    @Test
+    void getAuthorsPage_ExpandBooks_UsesBlockingService() {
+        when(authorService.getAuthorsPage(null, 10, true, 5)).thenReturn(new CursorPageResponse<>(
+                List.of(new AuthorResponse(1L, "Пушкин", 1799)), null));
+
+        webTestClient.get().uri("/authors?limit=10&expand=books&booksLimit=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("Пушкин");
+
+        verifyNoInteractions(reactiveAuthorService);
+    }
+
+    @Test
+    void getAuthorsPage_WithoutExpand_UsesReactiveService() {
+        when(reactiveAuthorService.getAuthorsPage("cursor", null)).thenReturn(Mono.just(new CursorPageResponse<>(
+                List.of(new AuthorResponse(2L, "Толстой", 1828)), "next")));
+
+        webTestClient.get().uri("/authors?cursor=cursor")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("Толстой")
+                .jsonPath("$.next").isEqualTo("next");
+
+        verifyNoInteractions(authorService);
+    }
+
+    @Test
+    void getAuthors_PageWithIds_ReturnsAuthorsByIds() {
+        when(authorService.getAuthorsByIds(List.of(1L, 2L))).thenReturn(new MultiGetResponse<>(
+                List.of(new AuthorResponse(1L, "Пушкин", 1799)), List.of(2L)));
+
+        webTestClient.get().uri("/authors?page=0&ids=1,2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("Пушкин")
+                .jsonPath("$.missingIds[0]").isEqualTo(2);
+
+        verify(authorService, never()).getAuthors(anyInt(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void getAuthorBooks_ReturnsPageOrNotFound() {
+        when(reactiveBookService.getAuthorBooks(1L, null, null)).thenReturn(Mono.just(new CursorPageResponse<>(
+                List.of(new BookResponse(3L, "Капитанская дочка", 1L, 1836, "Роман")), null)));
+        when(reactiveBookService.getAuthorBooks(2L, null, null))
+                .thenReturn(Mono.error(new AuthorNotFoundException("Автор с ID 2 не найден")));
+
+        webTestClient.get().uri("/authors/1/books")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(3);
+        webTestClient.get().uri("/authors/2/books")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,290 @@
+package com.kode.bookaccountingservice.controller;
+
+import com.kode.bookaccountingservice.dto.BookImportResponse;
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
+import com.kode.bookaccountingservice.exception.BookAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.BookNotFoundException;
+import com.kode.bookaccountingservice.exception.BookVersionMismatchException;
+import com.kode.bookaccountingservice.exception.InvalidCursorException;
+import com.kode.bookaccountingservice.service.BookImportService;
+import com.kode.bookaccountingservice.service.BookService;
+import com.kode.bookaccountingservice.service.CatalogExportService;
+import com.kode.bookaccountingservice.service.DeltaSyncService;
+import com.kode.bookaccountingservice.service.ReactiveBookService;
+import com.kode.bookaccountingservice.service.SuggestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяет, что неблокирующий контроллер книг отвечает так же, как {@link BookController}:
+ * коды ответа, ошибки проверки данных, ETag и условные заголовки, потоковая выдача NDJSON.
+ */
+@WebFluxTest(ReactiveBookController.class)
+class ReactiveBookControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveBookService reactiveBookService;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private BookImportService bookImportService;
+
+    @MockitoBean
+    private SuggestService suggestService;
+
+    @MockitoBean
+    private DeltaSyncService deltaSyncService;
+
+    @MockitoBean
+    private CatalogExportService catalogExportService;
+
+    @Test
+    void addBook_ValidRequest_ReturnsOk() {
+        when(reactiveBookService.addBook(any())).thenReturn(Mono.empty());
+
+        webTestClient.post().uri("/books").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман"))
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(reactiveBookService).addBook(argThat(request -> request.getTitle().equals("Капитанская дочка")
+                && request.getAuthorId() == 1L && request.getYear() == 1836));
+    }
+
+    @Test
+    void addBook_InvalidRequest_ReturnsFieldErrors() {
+        webTestClient.post().uri("/books").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson(" ", 1L, 3000, "Р"))
+                .exchange()
+                // ошибки проверки выдаются тем же RestExceptionHandler, что и в BookController
+                .expectBody()
+                .jsonPath("$.errors.title").isEqualTo("Поле не должно быть пустым")
+                .jsonPath("$.errors.year").isEqualTo("Год не должен быть больше текущего")
+                .jsonPath("$.errors.genre").isEqualTo("Длина поля должна быть от 3 до 255 символов");
+
+        verifyNoInteractions(reactiveBookService);
+    }
+
+    @Test
+    void addBook_ExistingTitle_ReturnsConflict() {
+        when(reactiveBookService.addBook(any()))
+                .thenReturn(Mono.error(new BookAlreadyExistsException("Книга с таким наименованием уже добавлена в базу")));
+
+        webTestClient.post().uri("/books").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody(String.class).isEqualTo("Книга с таким наименованием уже добавлена в базу");
+    }
+
+    @Test
+    void addBook_MissingAuthor_ReturnsNotFound() {
+        when(reactiveBookService.addBook(any()))
+                .thenReturn(Mono.error(new AuthorNotFoundException("Автор с ID 1 не найден")));
+
+        webTestClient.post().uri("/books").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getBookById_ReturnsBookWithETag() {
+        when(reactiveBookService.getBookById(1L))
+                .thenReturn(Mono.just(new BookResponse(1L, "Капитанская дочка", 2L, 1836, "Роман", 3L)));
+
+        webTestClient.get().uri("/books/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.title").isEqualTo("Капитанская дочка")
+                .jsonPath("$.authorId").isEqualTo(2);
+    }
+
+    @Test
+    void getBookById_MatchingIfNoneMatch_ReturnsNotModifiedWithoutReadingBook() {
+        when(reactiveBookService.getBookVersion(1L)).thenReturn(Mono.just(3L));
+
+        webTestClient.get().uri("/books/1").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+
+        verify(reactiveBookService, never()).getBookById(any());
+    }
+
+    @Test
+    void getBookById_StaleIfNoneMatch_ReturnsBook() {
+        when(reactiveBookService.getBookVersion(1L)).thenReturn(Mono.just(4L));
+        when(reactiveBookService.getBookById(1L))
+                .thenReturn(Mono.just(new BookResponse(1L, "Капитанская дочка", 2L, 1836, "Роман", 4L)));
+
+        webTestClient.get().uri("/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+    }
+
+    @Test
+    void getBookById_Missing_ReturnsNotFound() {
+        when(reactiveBookService.getBookById(1L))
+                .thenReturn(Mono.error(new BookNotFoundException("Книга с ID 1 не найдена")));
+
+        webTestClient.get().uri("/books/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Книга с ID 1 не найдена");
+    }
+
+    @Test
+    void updateBook_IfMatch_PassesVersionAndReturnsNewETag() {
+        when(reactiveBookService.updateBook(eq(1L), any(), eq(3L))).thenReturn(Mono.just(4L));
+
+        webTestClient.put().uri("/books/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+    }
+
+    @Test
+    void updateBook_WithoutIfMatch_SkipsVersionCheck() {
+        when(reactiveBookService.updateBook(eq(1L), any(), isNull())).thenReturn(Mono.just(4L));
+
+        webTestClient.put().uri("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void updateBook_WeakIfMatch_NeverMatches() {
+        when(reactiveBookService.updateBook(eq(1L), any(), eq(-1L))).thenReturn(Mono.error(
+                new BookVersionMismatchException("Книга с ID 1 была изменена: текущая версия 3")));
+
+        webTestClient.put().uri("/books/1").header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман"))
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody(String.class).isEqualTo("Книга с ID 1 была изменена: текущая версия 3");
+    }
+
+    @Test
+    void updateBook_InvalidRequest_ReturnsFieldErrors() {
+        webTestClient.put().uri("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookJson("Капитанская дочка", null, 1836, "Роман"))
+                .exchange()
+                .expectBody()
+                .jsonPath("$.errors.authorId").isEqualTo("Поле не должно быть пустым");
+
+        verifyNoInteractions(reactiveBookService);
+    }
+
+    @Test
+    void deleteBook_ReturnsOkOrNotFound() {
+        when(reactiveBookService.deleteBook(1L)).thenReturn(Mono.empty());
+        when(reactiveBookService.deleteBook(2L)).thenReturn(Mono.error(new BookNotFoundException("Книга с ID 2 не найдена")));
+
+        webTestClient.delete().uri("/books/1").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/books/2").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getBooksPage_InvalidCursor_ReturnsBadRequest() {
+        when(reactiveBookService.getBooksPage("bad", null))
+                .thenReturn(Mono.error(new InvalidCursorException("Некорректный курсор")));
+        when(reactiveBookService.getBooksPage(null, 2)).thenReturn(Mono.just(new CursorPageResponse<>(
+                List.of(new BookResponse(1L, "Капитанская дочка", 2L, 1836, "Роман")), "next")));
+
+        webTestClient.get().uri("/books?cursor=bad").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/books?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].title").isEqualTo("Капитанская дочка")
+                .jsonPath("$.next").isEqualTo("next");
+    }
+
+    @Test
+    void streamAllBooks_Ndjson_WritesOneBookPerLine() {
+        when(reactiveBookService.streamAllBooks()).thenReturn(Flux.just(
+                new BookResponse(1L, "Капитанская дочка", 2L, 1836, "Роман"),
+                new BookResponse(2L, "Война и мир", 3L, 1869, "Роман")));
+
+        String body = webTestClient.get().uri("/books/stream").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"id\":1,"), lines.get(0));
+        assertTrue(lines.get(1).contains("\"title\":\"Война и мир\""), lines.get(1));
+    }
+
+    @Test
+    void streamAllBooks_Json_WritesArray() {
+        when(reactiveBookService.streamAllBooks()).thenReturn(Flux.just(
+                new BookResponse(1L, "Капитанская дочка", 2L, 1836, "Роман")));
+
+        webTestClient.get().uri("/books/stream").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("Капитанская дочка");
+    }
+
+    @Test
+    void importBooksNdjson_PassesAllLinesToImport() {
+        when(bookImportService.importBooks(any())).thenReturn(new BookImportResponse(List.of(
+                BookImportResult.created(0, 10L), BookImportResult.created(1, 11L))));
+
+        webTestClient.post().uri("/books/batch").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(bookJson("Капитанская дочка", 1L, 1836, "Роман") + "\n"
+                        + bookJson("Война и мир", 1L, 1869, "Роман") + "\n")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(bookImportService).importBooks(argThat(requests -> requests.stream().map(BookRequest::getTitle).toList()
+                .equals(List.of("Капитанская дочка", "Война и мир"))));
+    }
+
+    private static String bookJson(String title, Long authorId, int year, String genre) {
+        return "{\"title\":\"" + title + "\",\"authorId\":" + authorId + ",\"year\":" + year + ",\"genre\":\"" + genre + "\"}";
+    }
+}
@@ -0,0 +1,62 @@
+package com.kode.bookaccountingservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger serviceLogger = loggerContext.getLogger("com.kode.bookaccountingservice.service.BookService");
+    private final Logger otherLogger = loggerContext.getLogger("org.hibernate.SQL");
+
+    @Test
+    void rateOfOnePassesEverything() {
+        SamplingTurboFilter filter = filter(1);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(filter, serviceLogger, Level.INFO));
+        }
+    }
+
+    @Test
+    void infoOfMatchingLoggersIsSampled() {
+        SamplingTurboFilter filter = filter(10);
+
+        int passed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (decide(filter, serviceLogger, Level.INFO) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        assertTrue(passed > 500 && passed < 1500, "пропущено " + passed);
+    }
+
+    @Test
+    void errorsAndOtherLoggersAreNotSampled() {
+        SamplingTurboFilter filter = filter(1_000_000);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(filter, serviceLogger, Level.ERROR));
+            assertEquals(FilterReply.NEUTRAL, decide(filter, serviceLogger, Level.WARN));
+            assertEquals(FilterReply.NEUTRAL, decide(filter, otherLogger, Level.INFO));
+        }
+    }
+
+    private static SamplingTurboFilter filter(int rate) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRate(rate);
+        filter.setLoggers("com.kode.bookaccountingservice.controller, com.kode.bookaccountingservice.service");
+        filter.start();
+        return filter;
+    }
+
+    private static FilterReply decide(SamplingTurboFilter filter, Logger logger, Level level) {
+        return filter.decide(null, logger, level, "сообщение {}", new Object[]{1}, null);
+    }
+}
@@ -0,0 +1,121 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.kode.bookaccountingservice.dto.AuthorDeltaResponse;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.entity.Author;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что страницы авторов читаются одним SQL-запросом без загрузки сущностей и подсчета количества.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class AuthorRepositoryTest {
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 7; i++) {
+            entityManager.persist(new Author(null, "Author " + i, i % 2 == 0 ? 1900 + i : null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findResponsesAfter_SingleStatement() {
+        List<AuthorResponse> page = authorRepository.findResponsesAfter(0L, Limit.of(5));
+        assertEquals(5, page.size());
+        assertEquals("Author 0", page.get(0).getName());
+        assertNull(page.get(1).getBirthYear());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findResponses_SliceWithoutCountQuery() {
+        Slice<AuthorResponse> first = authorRepository.findResponses(PageRequest.of(0, 5));
+        assertEquals(5, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        Slice<AuthorResponse> last = authorRepository.findResponses(PageRequest.of(1, 5));
+        assertEquals(2, last.getNumberOfElements());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void findAllByIds_SingleStatement() {
+        List<AuthorResponse> all = authorRepository.findResponsesAfter(0L, Limit.of(3));
+        statistics.clear();
+
+        List<Author> found = authorRepository.findAllByIds(new Long[]{all.get(2).getId(), all.get(0).getId(), -1L});
+        assertEquals(2, found.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findResponsesByIds_SingleStatementWithoutEntities() {
+        List<AuthorResponse> all = authorRepository.findResponsesAfter(0L, Limit.of(3));
+        statistics.clear();
+
+        List<AuthorResponse> found = authorRepository.findResponsesByIds(
+                new Long[]{all.get(2).getId(), all.get(0).getId(), -1L});
+        assertEquals(2, found.size());
+        AuthorResponse first = found.stream().filter(author -> author.getId().equals(all.get(0).getId()))
+                .findFirst().orElseThrow();
+        assertEquals(all.get(0).getName(), first.getName());
+        assertEquals(all.get(0).getBirthYear(), first.getBirthYear());
+        assertEquals(0L, first.getVersion());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findChangedAfter_ContinuesAfterWatermark() {
+        Instant before = Instant.now().plus(1, ChronoUnit.MINUTES);
+        List<AuthorDeltaResponse> first = authorRepository.findChangedAfter(Instant.EPOCH, 0, before, Limit.of(3));
+        assertEquals(3, first.size());
+        AuthorDeltaResponse last = first.get(2);
+        assertNotNull(last.getUpdatedAt());
+
+        List<AuthorDeltaResponse> rest = authorRepository.findChangedAfter(last.getUpdatedAt(), last.getId(), before,
+                Limit.of(100));
+        assertEquals(4, rest.size());
+        assertTrue(rest.stream().noneMatch(author -> first.stream().anyMatch(seen -> seen.getId().equals(author.getId()))));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,268 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.FacetCount;
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import com.kode.bookaccountingservice.entity.Author;
+import com.kode.bookaccountingservice.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что запросы чтения книг выполняются одним SQL-запросом без загрузки сущностей.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Author firstAuthor;
+    private Author secondAuthor;
+
+    @BeforeEach
+    void setUp() {
+        firstAuthor = new Author(null, "First author", 1900);
+        secondAuthor = new Author(null, "Second author", 1950);
+        entityManager.persist(firstAuthor);
+        entityManager.persist(secondAuthor);
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(new Book(null, "Book " + i, i % 2 == 0 ? firstAuthor : secondAuthor, 2000 + i, "Genre"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findResponsesAfter_SingleStatement() {
+        List<BookResponse> page = bookRepository.findResponsesAfter(0L, Limit.of(5));
+        assertEquals(5, page.size());
+        assertEquals(firstAuthor.getId(), page.get(0).getAuthorId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAllResponses_SingleStatement() {
+        List<BookResponse> books = bookRepository.findAllResponses();
+        assertEquals(10, books.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findResponsesByIds_SingleStatementExcludesDeleted() {
+        List<BookResponse> all = bookRepository.findAllResponses();
+        Long deletedId = all.get(1).getId();
+        bookRepository.deleteBookById(deletedId);
+        statistics.clear();
+
+        List<BookResponse> found = bookRepository.findResponsesByIds(
+                new Long[]{all.get(0).getId(), deletedId, all.get(2).getId(), -1L});
+        assertEquals(2, found.size());
+        assertTrue(found.stream().noneMatch(book -> book.getId().equals(deletedId)));
+        assertEquals(0L, found.get(0).getVersion());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findResponseById_SingleStatement() {
+        Long id = bookRepository.findAllResponses().get(3).getId();
+        statistics.clear();
+        Optional<BookResponse> book = bookRepository.findResponseById(id);
+        assertTrue(book.isPresent());
+        assertEquals("Book 3", book.get().getTitle());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void streamAllResponses_SingleStatement() {
+        try (Stream<BookResponse> books = bookRepository.streamAllResponses()) {
+            assertEquals(10, books.count());
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findResponsesByAuthorAfter_SingleStatement() {
+        List<BookResponse> page = bookRepository.findResponsesByAuthorAfter(firstAuthor.getId(), 0L, Limit.of(3));
+        assertEquals(List.of("Book 0", "Book 2", "Book 4"), page.stream().map(BookResponse::getTitle).toList());
+
+        List<BookResponse> next = bookRepository.findResponsesByAuthorAfter(firstAuthor.getId(), page.get(2).getId(),
+                Limit.of(3));
+        assertEquals(List.of("Book 6", "Book 8"), next.stream().map(BookResponse::getTitle).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findFirstResponsesByAuthors_LimitsBooksPerAuthorInSingleStatement() {
+        List<BookResponse> books = bookRepository.findFirstResponsesByAuthors(
+                List.of(firstAuthor.getId(), secondAuthor.getId()), 2);
+        assertEquals(List.of("Book 0", "Book 2", "Book 1", "Book 3"), books.stream().map(BookResponse::getTitle).toList());
+        assertEquals(firstAuthor.getId(), books.get(0).getAuthorId());
+        assertEquals(secondAuthor.getId(), books.get(3).getAuthorId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void searchResponsesAfter_AppliesOnlyGivenFilters() {
+        List<BookResponse> all = bookRepository.searchResponsesAfter(null, null, null, null, null, 0L, Limit.of(100));
+        assertEquals(10, all.size());
+
+        List<BookResponse> found = bookRepository.searchResponsesAfter("%book%", "Genre", 2002, 2007,
+                firstAuthor.getId(), 0L, Limit.of(100));
+        assertEquals(List.of("Book 2", "Book 4", "Book 6"), found.stream().map(BookResponse::getTitle).toList());
+
+        List<BookResponse> afterCursor = bookRepository.searchResponsesAfter("book 1%", null, null, null, null,
+                found.get(0).getId(), Limit.of(100));
+        assertTrue(afterCursor.isEmpty());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void searchResponsesAfter_EscapedWildcardMatchesLiterally() {
+        entityManager.persist(new Book(null, "100% Book", firstAuthor, 2020, "Genre"));
+        entityManager.flush();
+        List<BookResponse> found = bookRepository.searchResponsesAfter("%100\\%%", null, null, null, null, 0L, Limit.of(100));
+        assertEquals(1, found.size());
+        assertTrue(bookRepository.searchResponsesAfter("%k\\_%", null, null, null, null, 0L, Limit.of(100)).isEmpty());
+    }
+
+    @Test
+    void countByGenreAndDecade_GroupFilteredRows() {
+        entityManager.persist(new Book(null, "Other", firstAuthor, 1995, "Other genre"));
+        entityManager.flush();
+
+        List<FacetCount> genres = bookRepository.countByGenre(null, null, null, null, null);
+        assertEquals("Genre", genres.get(0).getValue());
+        assertEquals(10, genres.get(0).getCount());
+        assertEquals(1, genres.get(1).getCount());
+
+        List<FacetCount> decades = bookRepository.countByDecade(null, null, 1990, null, firstAuthor.getId());
+        assertEquals(List.of("1990", "2000"), decades.stream().map(FacetCount::getValue).toList());
+        assertEquals(List.of(1L, 5L), decades.stream().map(FacetCount::getCount).toList());
+    }
+
+    @Test
+    void streamSuggestions_ProjectsTitles() {
+        try (Stream<SuggestionResponse> suggestions = bookRepository.streamSuggestions()) {
+            List<SuggestionResponse> list = suggestions.toList();
+            assertEquals(10, list.size());
+            assertEquals(SuggestionResponse.Type.BOOK, list.get(0).getType());
+            assertTrue(list.get(0).getText().startsWith("Book "));
+        }
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void version_IncrementsOnUpdateAndRejectsStaleWrite() {
+        Long id = bookRepository.findAllResponses().get(0).getId();
+        assertEquals(Optional.of(0L), bookRepository.findVersionById(id));
+        Book stale = bookRepository.findById(id).orElseThrow();
+        entityManager.detach(stale);
+
+        Book current = bookRepository.findById(id).orElseThrow();
+        current.setGenre("Other genre");
+        bookRepository.saveAndFlush(current);
+        assertEquals(Optional.of(1L), bookRepository.findVersionById(id));
+        assertEquals(1L, bookRepository.findResponseById(id).orElseThrow().getVersion());
+        entityManager.clear();
+
+        stale.setGenre("Stale genre");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookRepository.saveAndFlush(stale));
+    }
+
+    @Test
+    void deleteBookById_ReportsAffectedRows() {
+        Long id = bookRepository.findAllResponses().get(0).getId();
+        statistics.clear();
+        assertEquals(1, bookRepository.deleteBookById(id));
+        assertEquals(0, bookRepository.deleteBookById(id));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteBookById_KeepsTombstoneForDeltaOnly() {
+        Long id = bookRepository.findAllResponses().get(0).getId();
+        bookRepository.deleteBookById(id);
+
+        assertTrue(bookRepository.findResponseById(id).isEmpty());
+        assertTrue(bookRepository.findVersionById(id).isEmpty());
+        assertEquals(9, bookRepository.findAllResponses().size());
+
+        Instant before = Instant.now().plus(1, ChronoUnit.MINUTES);
+        List<BookDeltaResponse> changes = bookRepository.findChangedAfter(Instant.EPOCH, 0, before, true, 100);
+        BookDeltaResponse tombstone = changes.stream().filter(book -> book.getId().equals(id)).findFirst().orElseThrow();
+        assertTrue(tombstone.isDeleted());
+        assertEquals(9, bookRepository.findChangedAfter(Instant.EPOCH, 0, before, false, 100).size());
+
+        assertEquals(1, bookRepository.purgeDeletedBefore(before));
+        assertEquals(9, bookRepository.findChangedAfter(Instant.EPOCH, 0, before, true, 100).size());
+    }
+
+    @Test
+    void findChangedAfter_ContinuesAfterWatermarkInUpdateOrder() {
+        Instant before = Instant.now().plus(1, ChronoUnit.MINUTES);
+        List<BookDeltaResponse> first = bookRepository.findChangedAfter(Instant.EPOCH, 0, before, true, 4);
+        assertEquals(4, first.size());
+        BookDeltaResponse last = first.get(3);
+
+        List<BookDeltaResponse> rest = bookRepository.findChangedAfter(last.getUpdatedAt(), last.getId(), before, true, 100);
+        assertEquals(6, rest.size());
+        for (BookDeltaResponse book : rest) {
+            assertTrue(book.getUpdatedAt().isAfter(last.getUpdatedAt())
+                    || book.getUpdatedAt().equals(last.getUpdatedAt()) && book.getId() > last.getId());
+        }
+        assertTrue(bookRepository.findChangedAfter(Instant.EPOCH, 0, last.getUpdatedAt(), true, 100).isEmpty());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void persist_InterleavedAuthorsAndBooks_BatchedPerTable() {
+        for (int i = 0; i < 10; i++) {
+            Author author = new Author(null, "Batch author " + i, 1900);
+            entityManager.persist(author);
+            entityManager.persist(new Book(null, "Batch book " + i, author, 2000, "Genre"));
+        }
+        entityManager.flush();
+        // не более одного запроса к каждой последовательности и одного пакетного INSERT на таблицу (без пакетов было бы 20)
+        assertTrue(statistics.getPrepareStatementCount() <= 4);
+        assertEquals(20, statistics.getEntityInsertCount());
+    }
+}
@@ -0,0 +1,69 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.kode.bookaccountingservice.dto.ChangeEventResponse;
+import com.kode.bookaccountingservice.entity.ChangeEvent;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет выдачу и очистку журнала изменений: выдаются только опубликованные события в порядке номеров.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ChangeEventRepositoryTest {
+
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new ChangeEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, i, "Книга " + i)));
+        }
+        entityManager.persist(new ChangeEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.BOOK, 0)));
+        entityManager.flush();
+        changeEventRepository.assignSequences(4);
+        entityManager.clear();
+    }
+
+    @Test
+    void findPublishedAfter_OnlyPublishedInSequenceOrder() {
+        List<ChangeEventResponse> events = changeEventRepository.findPublishedAfter(1L, Limit.of(10));
+        assertEquals(List.of(2L, 3L, 4L), events.stream().map(ChangeEventResponse::getSequence).toList());
+        assertEquals("Книга 1", events.get(0).getName());
+        assertEquals(4L, changeEventRepository.findLastSequence());
+    }
+
+    @Test
+    void assignSequences_ContinuesAfterLastSequence() {
+        assertEquals(2, changeEventRepository.assignSequences(10));
+        List<ChangeEventResponse> events = changeEventRepository.findPublishedAfter(4L, Limit.of(10));
+        assertEquals(List.of(5L, 6L), events.stream().map(ChangeEventResponse::getSequence).toList());
+        assertEquals(ChangeEvent.Operation.DELETED, events.get(1).getOperation());
+        assertNull(events.get(1).getName());
+    }
+
+    @Test
+    void deletePublishedBefore_KeepsLastSequence() {
+        assertEquals(3, changeEventRepository.deletePublishedBefore(Instant.now().plusSeconds(60)));
+        assertEquals(4L, changeEventRepository.findLastSequence());
+        assertEquals(2, changeEventRepository.assignSequences(10));
+        assertEquals(6L, changeEventRepository.findLastSequence());
+    }
+}
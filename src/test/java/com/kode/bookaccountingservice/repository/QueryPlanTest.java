@@ -0,0 +1,244 @@
+package com.kode.bookaccountingservice.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.EmbeddedPostgresSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет на встроенном PostgreSQL, что запросы репозиториев с условиями обслуживаются индексами.
+ * Запросы выполняются через репозитории, перехваченный SQL подготавливается заново, и его общий план
+ * (plan_cache_mode = force_generic_plan) выводится через EXPLAIN (FORMAT JSON) с теми же значениями параметров;
+ * в плане не должно быть полного просмотра books или authors.
+ * Запросы выдачи всего каталога (потоковая выдача, построение индекса подсказок) не проверяются:
+ * они читают таблицу целиком намеренно.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest extends EmbeddedPostgresSupport {
+
+    private static final int AUTHORS = 5000;
+    private static final int BOOKS_PER_AUTHOR = 10;
+    private static final Set<String> CHECKED_TABLES = Set.of("books", "authors");
+
+    private static boolean seeded;
+    private static int preparedStatements;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource(ObjectProvider<StatementRecorder> recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? recorder.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Ключи заполненных данных, на которые ссылаются проверяемые запросы.
+     */
+    record Seed(long authorId, long bookId, String title, Instant since) {
+    }
+
+    /**
+     * Вызов репозитория, план запросов которого проверяется.
+     */
+    interface RepositoryCall {
+        void call(BookRepository books, AuthorRepository authors, Seed seed);
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (seeded) {
+            return;
+        }
+        clean(jdbcTemplate);
+        jdbcTemplate.update("insert into authors (id, name, birth_year) " +
+                "select nextval('author_seq'), 'Автор ' || g, 1800 + g % 200 from generate_series(1, ?) g", AUTHORS);
+        jdbcTemplate.update("insert into books (id, title, author_id, year, genre) " +
+                "select nextval('book_seq'), 'Книга ' || g, a.id, 1800 + g % 225, 'Жанр ' || g % 50 " +
+                "from generate_series(1, ?) g join authors a on a.name = 'Автор ' || (g % ? + 1)",
+                AUTHORS * BOOKS_PER_AUTHOR, AUTHORS);
+        jdbcTemplate.execute("analyze books");
+        jdbcTemplate.execute("analyze authors");
+        seeded = true;
+    }
+
+    static Stream<Named<RepositoryCall>> repositoryCalls() {
+        return Stream.of(
+                call("BookRepository.findResponseById", (books, authors, seed) -> books.findResponseById(seed.bookId())),
+                call("BookRepository.findResponsesByIds",
+                        (books, authors, seed) -> books.findResponsesByIds(new Long[]{seed.bookId(), seed.bookId() + 1})),
+                call("BookRepository.findVersionById", (books, authors, seed) -> books.findVersionById(seed.bookId())),
+                call("BookRepository.findResponsesAfter",
+                        (books, authors, seed) -> books.findResponsesAfter(seed.bookId(), Limit.of(50))),
+                call("BookRepository.findResponsesByAuthorAfter",
+                        (books, authors, seed) -> books.findResponsesByAuthorAfter(seed.authorId(), 0, Limit.of(50))),
+                call("BookRepository.findFirstResponsesByAuthors",
+                        (books, authors, seed) -> books.findFirstResponsesByAuthors(List.of(seed.authorId()), 10)),
+                call("BookRepository.findExistingTitles",
+                        (books, authors, seed) -> books.findExistingTitles(List.of(seed.title(), "Нет такой книги"))),
+                call("BookRepository.findChangedAfter",
+                        (books, authors, seed) -> books.findChangedAfter(seed.since(), 0, Instant.now(), true, 500)),
+                call("BookRepository.streamSuggestions(range)",
+                        (books, authors, seed) -> books.streamSuggestions(seed.bookId(), seed.bookId() + 100).close()),
+                call("BookRepository.insertIfAbsent",
+                        (books, authors, seed) -> books.insertIfAbsent("Новая книга", seed.authorId(), 2000, "Роман")),
+                call("BookRepository.deleteBookById", (books, authors, seed) -> books.deleteBookById(seed.bookId())),
+                call("BookRepository.searchResponsesAfter(title)", (books, authors, seed) ->
+                        books.searchResponsesAfter("%книга 4242%", null, null, null, null, 0, Limit.of(50))),
+                call("BookRepository.searchResponsesAfter(genre, years)", (books, authors, seed) ->
+                        books.searchResponsesAfter(null, "Жанр 7", 1900, 1910, null, 0, Limit.of(50))),
+                call("BookRepository.searchResponsesAfter(author)", (books, authors, seed) ->
+                        books.searchResponsesAfter(null, null, null, null, seed.authorId(), 0, Limit.of(50))),
+                call("BookRepository.searchResponsesAfter(title, author)", (books, authors, seed) ->
+                        books.searchResponsesAfter("%книга%", null, null, null, seed.authorId(), 0, Limit.of(50))),
+                call("BookRepository.countByGenre(title)",
+                        (books, authors, seed) -> books.countByGenre("%книга 4242%", null, null, null, null)),
+                call("BookRepository.countByDecade(genre, years)",
+                        (books, authors, seed) -> books.countByDecade(null, "Жанр 7", 1900, 1910, null)),
+                call("AuthorRepository.findAllByIds",
+                        (books, authors, seed) -> authors.findAllByIds(new Long[]{seed.authorId(), seed.authorId() + 1})),
+                call("AuthorRepository.findResponsesByIds",
+                        (books, authors, seed) -> authors.findResponsesByIds(new Long[]{seed.authorId(), seed.authorId() + 1})),
+                call("AuthorRepository.findVersionById", (books, authors, seed) -> authors.findVersionById(seed.authorId())),
+                call("AuthorRepository.findResponsesAfter",
+                        (books, authors, seed) -> authors.findResponsesAfter(seed.authorId(), Limit.of(50))),
+                call("AuthorRepository.findResponses", (books, authors, seed) -> authors.findResponses(PageRequest.of(3, 20))),
+                call("AuthorRepository.findExistingIds",
+                        (books, authors, seed) -> authors.findExistingIds(List.of(seed.authorId(), -1L))),
+                call("AuthorRepository.findChangedAfter",
+                        (books, authors, seed) -> authors.findChangedAfter(seed.since(), 0, Instant.now(), Limit.of(500))),
+                call("AuthorRepository.streamSuggestions(range)",
+                        (books, authors, seed) -> authors.streamSuggestions(seed.authorId(), seed.authorId() + 100).close()),
+                call("AuthorRepository.insertIfAbsent",
+                        (books, authors, seed) -> authors.insertIfAbsent("Новый автор", 1900)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("repositoryCalls")
+    void repositoryQueryUsesIndexes(RepositoryCall repositoryCall) {
+        List<String> plans = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            Seed seed = jdbcTemplate.queryForObject("select a.id, b.id, b.title from authors a " +
+                            "join books b on b.author_id = a.id order by b.id offset 1000 limit 1",
+                    (rs, rowNum) -> new Seed(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                            Instant.now().plus(1, ChronoUnit.MINUTES)));
+            statementRecorder.drain();
+            repositoryCall.call(bookRepository, authorRepository, seed);
+            List<String> explained = new ArrayList<>();
+            jdbcTemplate.execute("set local plan_cache_mode = force_generic_plan");
+            for (StatementRecorder.RecordedStatement statement : statementRecorder.drain()) {
+                explained.add(explainGenericPlan(statement));
+            }
+            return explained;
+        });
+
+        assertFalse(plans.isEmpty(), "Запрос не выполнен");
+        for (String plan : plans) {
+            List<String> scanned = new ArrayList<>();
+            collectSeqScans(readTree(plan).get(0).get("Plan"), scanned);
+            assertTrue(scanned.isEmpty(), () -> "Полный просмотр " + scanned + ": " + plan);
+        }
+    }
+
+    /**
+     * Получает общий план запроса, который PostgreSQL использует для подготовленного запроса после
+     * нескольких выполнений: план не зависит от значений параметров, поэтому условия вида
+     * (:p is null or ...) в нем не могут выбрать индекс. EXPLAIN запроса с параметрами
+     * всегда строит частный план по значениям, поэтому запрос подготавливается отдельно.
+     * Подготовленный запрос не удаляется откатом транзакции, поэтому имя у каждого свое.
+     */
+    private String explainGenericPlan(StatementRecorder.RecordedStatement statement) {
+        StringBuilder sql = new StringBuilder();
+        int parameters = 0;
+        for (char c : statement.sql.toCharArray()) {
+            if (c == '?') {
+                sql.append('$').append(++parameters);
+            } else {
+                sql.append(c);
+            }
+        }
+        String name = "checked_statement_" + ++preparedStatements;
+        String types = statement.types.isEmpty() ? "" : "(" + String.join(", ", statement.types) + ")";
+        jdbcTemplate.execute("prepare " + name + types + " as " + sql);
+        List<String> literals = statement.literals();
+        String plan = jdbcTemplate.queryForObject("explain (format json) execute " + name
+                + (literals.isEmpty() ? "" : "(" + String.join(", ", literals) + ")"), String.class);
+        jdbcTemplate.execute("deallocate " + name);
+        return plan;
+    }
+
+    private static Named<RepositoryCall> call(String name, RepositoryCall call) {
+        return Named.of(name, call);
+    }
+
+    private JsonNode readTree(String plan) {
+        try {
+            return objectMapper.readTree(plan);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> scanned) {
+        if (node.path("Node Type").asText().equals("Seq Scan")
+                && CHECKED_TABLES.contains(node.path("Relation Name").asText())) {
+            scanned.add(node.path("Relation Name").asText());
+        }
+        node.path("Plans").forEach(child -> collectSeqScans(child, scanned));
+    }
+}
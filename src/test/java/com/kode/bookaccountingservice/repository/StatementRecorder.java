@@ -0,0 +1,104 @@
+package com.kode.bookaccountingservice.repository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Оборачивает DataSource и запоминает подготовленные запросы вместе со значениями параметров,
+ * чтобы тест мог подготовить тот же запрос заново и вывести его план.
+ */
+final class StatementRecorder {
+
+    private final List<RecordedStatement> statements = new ArrayList<>();
+
+    DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection connection ? wrap(connection) : result);
+    }
+
+    synchronized List<RecordedStatement> drain() {
+        List<RecordedStatement> recorded = List.copyOf(statements);
+        statements.clear();
+        return recorded;
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) ->
+                method.getName().equals("prepareStatement") ? wrap((PreparedStatement) result, (String) args[0]) : result);
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        RecordedStatement recorded = new RecordedStatement(sql);
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            if (method.getName().startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer index) {
+                recorded.values.put(index, method.getName().equals("setNull") ? null : args[1]);
+            } else if (method.getName().startsWith("execute")) {
+                ParameterMetaData metaData = statement.getParameterMetaData();
+                for (int i = 1; i <= metaData.getParameterCount(); i++) {
+                    recorded.types.add(metaData.getParameterTypeName(i));
+                }
+                synchronized (this) {
+                    statements.add(recorded);
+                }
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            try {
+                return handler.handle(method, args, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private interface ResultHandler {
+        Object handle(Method method, Object[] args, Object result) throws Exception;
+    }
+
+    /**
+     * Выполненный запрос, типы его параметров в базе данных и значения параметров по номерам.
+     */
+    static final class RecordedStatement {
+        final String sql;
+        final List<String> types = new ArrayList<>();
+        final SortedMap<Integer, Object> values = new TreeMap<>();
+
+        private RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+
+        /**
+         * Записывает значения параметров литералами SQL в порядке номеров; литерал приводится
+         * к типу параметра подготовленного запроса.
+         */
+        List<String> literals() {
+            List<String> literals = new ArrayList<>();
+            for (Object value : values.values()) {
+                if (value == null) {
+                    literals.add("null");
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    literals.add(value.toString());
+                } else {
+                    literals.add("'" + value.toString().replace("'", "''") + "'");
+                }
+            }
+            return literals;
+        }
+    }
+}
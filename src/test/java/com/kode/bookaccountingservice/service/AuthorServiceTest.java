@@ -1,26 +1,37 @@
 package com.kode.bookaccountingservice.service;
 
 import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
+import com.kode.bookaccountingservice.dto.SlicePageResponse;
 import com.kode.bookaccountingservice.entity.Author;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
 import com.kode.bookaccountingservice.exception.AuthorAlreadyExistsException;
 import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
 import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +40,15 @@ class AuthorServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
-    @InjectMocks
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private AuthorService authorService;
 
     private AuthorRequest authorRequest;
@@ -37,6 +56,8 @@ class AuthorServiceTest {
 
     @BeforeEach
     void setUp() {
+        authorService = new AuthorService(authorRepository, bookRepository, eventPublisher,
+                new TransactionTemplate(transactionManager), Duration.ZERO);
         authorRequest = new AuthorRequest();
         authorRequest.setName("Test guy");
         authorRequest.setBirthYear(1969);
@@ -48,54 +69,146 @@ class AuthorServiceTest {
 
     @Test
     void addAuthorSuccess() {
-        when(authorRepository.existsByName(authorRequest.getName())).thenReturn(false);
-        when(authorRepository.save(any(Author.class))).thenReturn(author);
+        when(authorRepository.insertIfAbsent(authorRequest.getName(), authorRequest.getBirthYear())).thenReturn(Optional.of(1L));
+        authorService.addAuthor(authorRequest);
+        verify(authorRepository, times(1)).insertIfAbsent(authorRequest.getName(), authorRequest.getBirthYear());
+        verify(authorRepository, never()).save(any(Author.class));
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void addAuthorWithoutBirthYearSuccess() {
+        authorRequest.setBirthYear(null);
+        when(authorRepository.insertIfAbsent(authorRequest.getName(), null)).thenReturn(Optional.of(1L));
         authorService.addAuthor(authorRequest);
-        verify(authorRepository, times(1)).existsByName(authorRequest.getName());
-        verify(authorRepository, times(1)).save(any(Author.class));
+        verify(authorRepository, times(1)).insertIfAbsent(authorRequest.getName(), null);
     }
 
     @Test
     void addAuthorAlreadyExistsException() {
-        when(authorRepository.existsByName(authorRequest.getName())).thenReturn(true);
+        when(authorRepository.insertIfAbsent(authorRequest.getName(), authorRequest.getBirthYear())).thenReturn(Optional.empty());
         AuthorAlreadyExistsException exception = assertThrows(AuthorAlreadyExistsException.class,
                 () -> authorService.addAuthor(authorRequest));
         assertEquals("Автор с таким именем уже добавлен в базу", exception.getMessage());
-        verify(authorRepository, times(1)).existsByName(authorRequest.getName());
-        verify(authorRepository, never()).save(any(Author.class));
+        verify(authorRepository, times(1)).insertIfAbsent(authorRequest.getName(), authorRequest.getBirthYear());
     }
 
     @Test
     void getAuthorsSuccess() {
-        Pageable pageable = PageRequest.of(0, 5);
-        Page<Author> authorPage = new PageImpl<>(Arrays.asList(author));
-        when(authorRepository.findAll(pageable)).thenReturn(authorPage);
-        Page<Author> result = authorService.getAuthors(0, 5);
-        assertNotNull(result);
-        assertEquals(1, result.getContent().size());
-        assertEquals(author.getName(), result.getContent().get(0).getName());
-        verify(authorRepository, times(1)).findAll(pageable);
+        PageRequest pageable = PageRequest.of(0, 5);
+        AuthorResponse authorResponse = new AuthorResponse(1L, "Test guy", null);
+        when(authorRepository.findResponses(pageable))
+                .thenReturn(new SliceImpl<>(List.of(authorResponse), pageable, true));
+        SlicePageResponse<AuthorResponse> result = authorService.getAuthors(0, 5, false, null);
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test guy", result.getItems().get(0).getName());
+        assertNull(result.getItems().get(0).getBirthYear());
+        assertTrue(result.isHasNext());
+        verify(authorRepository, never()).count();
+    }
+
+    @Test
+    void getAuthorsDefaultPageSize() {
+        PageRequest pageable = PageRequest.of(1, AuthorService.DEFAULT_NUMBERED_PAGE_SIZE);
+        when(authorRepository.findResponses(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        SlicePageResponse<AuthorResponse> result = authorService.getAuthors(1, null, false, null);
+        assertEquals(5, result.getSize());
+    }
+
+    @Test
+    void getAuthorsCapsPageSize() {
+        PageRequest pageable = PageRequest.of(2, AuthorService.MAX_PAGE_SIZE);
+        when(authorRepository.findResponses(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        SlicePageResponse<AuthorResponse> result = authorService.getAuthors(2, 1_000_000, false, null);
+        assertEquals(AuthorService.MAX_PAGE_SIZE, result.getSize());
+        assertFalse(result.isHasNext());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void getAuthorsPageExpandBooksInSingleQuery() {
+        when(authorRepository.findResponsesAfter(0L, Limit.of(AuthorService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of(
+                new AuthorResponse(1L, "Первый", 1799),
+                new AuthorResponse(2L, "Второй", null)));
+        when(bookRepository.findFirstResponsesByAuthors(List.of(1L, 2L), 3)).thenReturn(List.of(
+                new BookResponse(10L, "Книга 1", 1L, 2000, "Роман"),
+                new BookResponse(11L, "Книга 2", 1L, 2001, "Роман"),
+                new BookResponse(12L, "Книга 3", 1L, 2002, "Роман")));
+        CursorPageResponse<AuthorResponse> page = authorService.getAuthorsPage(null, null, true, 2);
+
+        CursorPageResponse<BookResponse> firstBooks = page.getItems().get(0).getBooks();
+        assertEquals(2, firstBooks.getItems().size());
+        assertEquals(CursorCodec.encode(11L), firstBooks.getNext());
+        CursorPageResponse<BookResponse> secondBooks = page.getItems().get(1).getBooks();
+        assertTrue(secondBooks.getItems().isEmpty());
+        assertNull(secondBooks.getNext());
+        verify(bookRepository, times(1)).findFirstResponsesByAuthors(any(), anyInt());
+    }
+
+    @Test
+    void getAuthorsPageReturnsNextCursor() {
+        when(authorRepository.findResponsesAfter(0L, Limit.of(3))).thenReturn(List.of(
+                new AuthorResponse(1L, "Первый", 1799),
+                new AuthorResponse(2L, "Второй", null),
+                new AuthorResponse(3L, "Третий", 1828)));
+        CursorPageResponse<AuthorResponse> page = authorService.getAuthorsPage(null, 2, false, null);
+        assertEquals(2, page.getItems().size());
+        assertEquals(CursorCodec.encode(2L), page.getNext());
+    }
+
+    @Test
+    void getAuthorsPageLastPage() {
+        when(authorRepository.findResponsesAfter(2L, Limit.of(AuthorService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(new AuthorResponse(3L, "Третий", 1828)));
+        CursorPageResponse<AuthorResponse> page = authorService.getAuthorsPage(CursorCodec.encode(2L), null, false, null);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNext());
     }
 
     @Test
     void getAuthorByIdSuccess() {
-        when(authorRepository.existsById(1L)).thenReturn(true);
-        when(authorRepository.findById(1L)).thenReturn(Optional.of(author));
-        Optional<Author> result = authorService.getAuthorById(1L);
-        assertTrue(result.isPresent());
-        assertEquals(author.getName(), result.get().getName());
-        assertEquals(author.getBirthYear(), result.get().getBirthYear());
-        verify(authorRepository, times(1)).existsById(1L);
-        verify(authorRepository, times(1)).findById(1L);
+        when(authorRepository.findAllByIds(new Long[]{1L}))
+                .thenReturn(List.of(new Author(1L, author.getName(), author.getBirthYear())));
+        Author result = authorService.getAuthorById(1L);
+        assertEquals(author.getName(), result.getName());
+        assertEquals(author.getBirthYear(), result.getBirthYear());
+        verify(authorRepository, times(1)).findAllByIds(new Long[]{1L});
+        verify(authorRepository, never()).existsById(anyLong());
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
     }
 
     @Test
     void getAuthorByIdNotFoundException() {
-        when(authorRepository.existsById(1L)).thenReturn(false);
+        when(authorRepository.findAllByIds(new Long[]{1L})).thenReturn(List.of());
         AuthorNotFoundException exception = assertThrows(AuthorNotFoundException.class,
                 () -> authorService.getAuthorById(1L));
         assertEquals("Автор с ID 1 не найден", exception.getMessage());
-        verify(authorRepository, times(1)).existsById(1L);
-        verify(authorRepository, never()).findById(1L);
+        verify(authorRepository, times(1)).findAllByIds(new Long[]{1L});
+        verify(authorRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void getAuthorVersionReadsFromPrimary() {
+        when(authorRepository.findVersionById(1L)).thenReturn(Optional.of(2L));
+        assertEquals(2L, authorService.getAuthorVersion(1L));
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void getAuthorVersionNotFoundException() {
+        when(authorRepository.findVersionById(1L)).thenReturn(Optional.empty());
+        assertThrows(AuthorNotFoundException.class, () -> authorService.getAuthorVersion(1L));
+    }
+
+    @Test
+    void getAuthorsByIds_PreservesRequestedOrderAndReportsMissing() {
+        when(authorRepository.findResponsesByIds(new Long[]{2L, 5L, 1L}))
+                .thenReturn(List.of(new AuthorResponse(1L, "First", 1900, 0L), new AuthorResponse(2L, "Second", null, 0L)));
+
+        MultiGetResponse<AuthorResponse> result = authorService.getAuthorsByIds(List.of(2L, 5L, 1L));
+
+        assertEquals(List.of(2L, 1L), result.getItems().stream().map(AuthorResponse::getId).toList());
+        assertEquals(List.of(5L), result.getMissingIds());
+        verify(authorRepository, never()).findAllByIds(any());
     }
-}
+}
\ No newline at end of file
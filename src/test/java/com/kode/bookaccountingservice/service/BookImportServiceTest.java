@@ -0,0 +1,138 @@
+package com.kode.bookaccountingservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.dto.BookImportResponse;
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.entity.Author;
+import com.kode.bookaccountingservice.entity.Book;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        bookImportService = new BookImportService(bookRepository, authorRepository, validator, entityManager,
+                new TransactionTemplate(transactionManager), new ObjectMapper(), eventPublisher, 2);
+    }
+
+    @Test
+    void importBooks_ChunksAndReportsEveryItem() {
+        when(authorRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(bookRepository.findExistingTitles(anyCollection())).thenReturn(Set.of("Existing"));
+        when(authorRepository.getReferenceById(1L)).thenReturn(new Author(1L, "Test guy", 1969));
+        when(bookRepository.saveAll(anyList())).thenAnswer(BookImportServiceTest::assignIds);
+
+        BookImportResponse response = bookImportService.importBooks(Arrays.asList(
+                request("First", 1L), request("Existing", 1L), request("Second", 2L),
+                request("", 1L), request("Third", 1L)));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(3, response.getRejected());
+        List<BookImportResult> results = response.getResults();
+        assertEquals(5, results.size());
+        assertEquals(BookImportResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(100L, results.get(0).getId());
+        assertTrue(results.get(1).getErrors().containsKey("title"));
+        assertTrue(results.get(2).getErrors().containsKey("authorId"));
+        assertTrue(results.get(3).getErrors().containsKey("title"));
+        assertEquals(BookImportResult.Status.CREATED, results.get(4).getStatus());
+        assertEquals(4, results.get(4).getIndex());
+        verify(authorRepository, times(3)).findExistingIds(anyCollection());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        verify(eventPublisher, times(2)).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void importBooks_DuplicateTitlesInOneChunk_SecondRejected() {
+        when(authorRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(bookRepository.findExistingTitles(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.saveAll(anyList())).thenAnswer(BookImportServiceTest::assignIds);
+
+        BookImportResponse response = bookImportService.importBooks(List.of(request("Same", 1L), request("Same", 1L)));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(BookImportResult.Status.REJECTED, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void importNdjson_MalformedLineRejectedAndImportContinues() {
+        when(authorRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(bookRepository.findExistingTitles(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.saveAll(anyList())).thenAnswer(BookImportServiceTest::assignIds);
+        String ndjson = "{\"title\":\"First\",\"authorId\":1,\"year\":2000,\"genre\":\"Роман\"}\n"
+                + "{not json\n"
+                + "\n"
+                + "{\"title\":\"Second\",\"authorId\":1,\"year\":2001,\"genre\":\"Роман\"}\n";
+
+        BookImportResponse response = bookImportService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, response.getResults().size());
+        assertEquals(2, response.getCreated());
+        assertEquals(BookImportResult.Status.REJECTED, response.getResults().get(1).getStatus());
+        assertTrue(response.getResults().get(1).getErrors().containsKey("book"));
+    }
+
+    private static BookRequest request(String title, Long authorId) {
+        BookRequest request = new BookRequest();
+        request.setTitle(title);
+        request.setAuthorId(authorId);
+        request.setYear(2000);
+        request.setGenre("Test genre");
+        return request;
+    }
+
+    private static List<Book> assignIds(InvocationOnMock invocation) {
+        List<Book> books = invocation.getArgument(0);
+        long id = 100;
+        for (Book book : books) {
+            ReflectionTestUtils.setField(book, "id", id++);
+        }
+        return books;
+    }
+}
@@ -2,25 +2,49 @@ package com.kode.bookaccountingservice.service;
 
 import com.kode.bookaccountingservice.dto.BookRequest;
 import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.BookSearchRequest;
+import com.kode.bookaccountingservice.dto.BookSearchResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.dto.FacetCount;
+import com.kode.bookaccountingservice.dto.MultiGetResponse;
 import com.kode.bookaccountingservice.entity.Author;
 import com.kode.bookaccountingservice.entity.Book;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
 import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
 import com.kode.bookaccountingservice.exception.BookAlreadyExistsException;
 import com.kode.bookaccountingservice.exception.BookNotFoundException;
+import com.kode.bookaccountingservice.exception.BookVersionMismatchException;
+import com.kode.bookaccountingservice.exception.InvalidCursorException;
 import com.kode.bookaccountingservice.repository.AuthorRepository;
 import com.kode.bookaccountingservice.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,15 +56,23 @@ class BookServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private BookService bookService;
 
     private BookRequest bookRequest;
     private Book book;
     private Author author;
+    private BookResponse bookResponse;
 
     @BeforeEach
     void setUp() {
+        bookService = new BookService(bookRepository, authorRepository, eventPublisher,
+                new TransactionTemplate(transactionManager), Duration.ZERO);
         author = new Author(1L, "Test guy", 1969);
 
         bookRequest = new BookRequest();
@@ -54,45 +86,47 @@ class BookServiceTest {
         book.setAuthor(author);
         book.setYear(2000);
         book.setGenre("Test genre");
+
+        bookResponse = new BookResponse(1L, "Test book", 1L, 2000, "Test genre");
     }
 
     @Test
     void addBook_Success() {
-        when(bookRepository.existsByTitle(bookRequest.getTitle())).thenReturn(false);
-        when(authorRepository.findById(bookRequest.getAuthorId())).thenReturn(Optional.of(author));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.insertIfAbsent("Test book", 1L, 2000, "Test genre")).thenReturn(Optional.of(1L));
         bookService.addBook(bookRequest);
-        verify(bookRepository, times(1)).existsByTitle(bookRequest.getTitle());
-        verify(authorRepository, times(1)).findById(bookRequest.getAuthorId());
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).insertIfAbsent("Test book", 1L, 2000, "Test genre");
+        verify(authorRepository, never()).existsById(anyLong());
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(eventPublisher).publishEvent(argThat((CatalogChangedEvent event) ->
+                event.getId() == 1L && "Test book".equals(event.getName())));
     }
 
     @Test
     void addBook_BookAlreadyExists_ThrowsException() {
-        when(bookRepository.existsByTitle(bookRequest.getTitle())).thenReturn(true);
+        when(bookRepository.insertIfAbsent("Test book", 1L, 2000, "Test genre")).thenReturn(Optional.empty());
+        when(authorRepository.existsById(1L)).thenReturn(true);
         BookAlreadyExistsException exception = assertThrows(BookAlreadyExistsException.class,
                 () -> bookService.addBook(bookRequest));
         assertEquals("Книга с таким наименованием уже добавлена в базу", exception.getMessage());
-        verify(bookRepository, times(1)).existsByTitle(bookRequest.getTitle());
-        verify(authorRepository, never()).findById(anyLong());
+        verify(bookRepository, times(1)).insertIfAbsent("Test book", 1L, 2000, "Test genre");
         verify(bookRepository, never()).save(any(Book.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void addBook_AuthorNotFound_ThrowsException() {
-        when(bookRepository.existsByTitle(bookRequest.getTitle())).thenReturn(false);
-        when(authorRepository.findById(bookRequest.getAuthorId())).thenReturn(Optional.empty());
+        when(bookRepository.insertIfAbsent("Test book", 1L, 2000, "Test genre")).thenReturn(Optional.empty());
+        when(authorRepository.existsById(1L)).thenReturn(false);
         AuthorNotFoundException exception = assertThrows(AuthorNotFoundException.class,
                 () -> bookService.addBook(bookRequest));
         assertEquals("Автор с ID1 не найден: ", exception.getMessage());
-        verify(bookRepository, times(1)).existsByTitle(bookRequest.getTitle());
-        verify(authorRepository, times(1)).findById(bookRequest.getAuthorId());
+        verify(authorRepository, times(1)).existsById(1L);
         verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
     void getAllBooks_Success() {
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book));
+        when(bookRepository.findAllResponses()).thenReturn(Arrays.asList(bookResponse));
         List<BookResponse> result = bookService.getAllBooks();
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -100,70 +134,260 @@ class BookServiceTest {
         assertEquals(book.getAuthor().getId(), result.get(0).getAuthorId());
         assertEquals(book.getYear(), result.get(0).getYear());
         assertEquals(book.getGenre(), result.get(0).getGenre());
-        verify(bookRepository, times(1)).findAll();
+        verify(bookRepository, times(1)).findAllResponses();
+    }
+
+    @Test
+    void getBooksPage_FirstPage_ReturnsNextCursor() {
+        BookResponse first = new BookResponse(1L, "First", 1L, 2000, "Test genre");
+        BookResponse second = new BookResponse(2L, "Second", 1L, 2001, "Test genre");
+        BookResponse third = new BookResponse(3L, "Third", 1L, 2002, "Test genre");
+        when(bookRepository.findResponsesAfter(0L, Limit.of(3)))
+                .thenReturn(new ArrayList<>(List.of(first, second, third)));
+        CursorPageResponse<BookResponse> result = bookService.getBooksPage(null, 2);
+        assertEquals(2, result.getItems().size());
+        assertEquals(2L, result.getItems().get(1).getId());
+        assertEquals(2L, CursorCodec.decode(result.getNext()));
+    }
+
+    @Test
+    void getBooksPage_LastPage_ReturnsNoCursor() {
+        BookResponse third = new BookResponse(3L, "Third", 1L, 2002, "Test genre");
+        when(bookRepository.findResponsesAfter(2L, Limit.of(3)))
+                .thenReturn(new ArrayList<>(List.of(third)));
+        CursorPageResponse<BookResponse> result = bookService.getBooksPage(CursorCodec.encode(2L), 2);
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void getAuthorBooks_ReturnsNextCursorWithoutAuthorCheck() {
+        when(bookRepository.findResponsesByAuthorAfter(1L, 0L, Limit.of(2))).thenReturn(List.of(
+                new BookResponse(3L, "Первая", 1L, 2000, "Роман"),
+                new BookResponse(7L, "Вторая", 1L, 2001, "Роман")));
+        CursorPageResponse<BookResponse> result = bookService.getAuthorBooks(1L, null, 1);
+        assertEquals(1, result.getItems().size());
+        assertEquals(CursorCodec.encode(3L), result.getNext());
+        verify(authorRepository, never()).existsById(any());
+    }
+
+    @Test
+    void getAuthorBooks_AuthorNotFound_ThrowsException() {
+        when(bookRepository.findResponsesByAuthorAfter(1L, 0L, Limit.of(BookService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+        when(authorRepository.existsById(1L)).thenReturn(false);
+        assertThrows(AuthorNotFoundException.class, () -> bookService.getAuthorBooks(1L, null, null));
+    }
+
+    @Test
+    void searchBooks_FirstPage_ReturnsFacets() {
+        BookSearchRequest searchRequest = new BookSearchRequest();
+        searchRequest.setTitle("Test");
+        searchRequest.setGenre("Test genre");
+        List<FacetCount> genres = List.of(new FacetCount("Test genre", 1L));
+        List<FacetCount> decades = List.of(new FacetCount("2000", 1L));
+        when(bookRepository.searchResponsesAfter("%test%", "Test genre", null, null, null, 0L, Limit.of(51)))
+                .thenReturn(new ArrayList<>(List.of(bookResponse)));
+        when(bookRepository.countByGenre("%test%", "Test genre", null, null, null)).thenReturn(genres);
+        when(bookRepository.countByDecade("%test%", "Test genre", null, null, null)).thenReturn(decades);
+        BookSearchResponse result = bookService.searchBooks(searchRequest, null, null);
+        assertEquals(List.of(bookResponse), result.getItems());
+        assertNull(result.getNext());
+        assertEquals(genres, result.getGenres());
+        assertEquals(decades, result.getDecades());
+    }
+
+    @Test
+    void searchBooks_NextPage_SkipsFacets() {
+        BookSearchRequest searchRequest = new BookSearchRequest();
+        searchRequest.setTitle("Test");
+        searchRequest.setMatch(BookSearchRequest.TitleMatch.PREFIX);
+        searchRequest.setYearFrom(1990);
+        when(bookRepository.searchResponsesAfter("test%", null, 1990, null, null, 5L, Limit.of(11)))
+                .thenReturn(new ArrayList<>(List.of(bookResponse)));
+        BookSearchResponse result = bookService.searchBooks(searchRequest, CursorCodec.encode(5L), 10);
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getGenres());
+        assertNull(result.getDecades());
+        verify(bookRepository, never()).countByGenre(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void titlePattern_EscapesLikeWildcards() {
+        assertNull(BookService.titlePattern("  ", BookSearchRequest.TitleMatch.CONTAINS));
+        assertEquals("%100\\%\\_ok%", BookService.titlePattern("100%_OK", BookSearchRequest.TitleMatch.CONTAINS));
+        assertEquals("a\\\\b%", BookService.titlePattern("A\\b", BookSearchRequest.TitleMatch.PREFIX));
+    }
+
+    @Test
+    void getBooksPage_InvalidCursor_ThrowsException() {
+        assertThrows(InvalidCursorException.class, () -> bookService.getBooksPage("not a cursor", 10));
+        verify(bookRepository, never()).findResponsesAfter(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void streamAllBooks_PassesEveryBook() {
+        when(bookRepository.streamAllResponses()).thenReturn(Stream.of(bookResponse));
+        List<BookResponse> result = new ArrayList<>();
+        bookService.streamAllBooks(result::add);
+        assertEquals(1, result.size());
+        assertEquals(bookResponse.getTitle(), result.get(0).getTitle());
     }
 
     @Test
     void getBookById_Success() {
-        when(bookRepository.existsById(1L)).thenReturn(true);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        Optional<BookResponse> result = bookService.getBookById(1L);
-        assertTrue(result.isPresent());
-        assertEquals(book.getTitle(), result.get().getTitle());
-        assertEquals(book.getAuthor().getId(), result.get().getAuthorId());
-        assertEquals(book.getYear(), result.get().getYear());
-        assertEquals(book.getGenre(), result.get().getGenre());
-        verify(bookRepository, times(1)).existsById(1L);
-        verify(bookRepository, times(1)).findById(1L);
+        when(bookRepository.findResponsesByIds(new Long[]{1L})).thenReturn(List.of(bookResponse));
+        BookResponse result = bookService.getBookById(1L);
+        assertEquals(book.getTitle(), result.getTitle());
+        assertEquals(book.getAuthor().getId(), result.getAuthorId());
+        assertEquals(book.getYear(), result.getYear());
+        assertEquals(book.getGenre(), result.getGenre());
+        verify(bookRepository, times(1)).findResponsesByIds(new Long[]{1L});
+        verify(bookRepository, never()).existsById(anyLong());
     }
 
     @Test
     void getBookById_NotFound_ThrowsException() {
-        when(bookRepository.existsById(1L)).thenReturn(false);
+        when(bookRepository.findResponsesByIds(new Long[]{1L})).thenReturn(List.of());
         BookNotFoundException exception = assertThrows(BookNotFoundException.class,
                 () -> bookService.getBookById(1L));
         assertEquals("Книга с ID 1 не найдена", exception.getMessage());
-        verify(bookRepository, times(1)).existsById(1L);
-        verify(bookRepository, never()).findById(1L);
+        verify(bookRepository, times(1)).findResponsesByIds(new Long[]{1L});
+        verify(bookRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void getBookById_RequestsDuringRunningQueryCollapsedIntoOneQuery() throws Exception {
+        bookService = new BookService(bookRepository, authorRepository, eventPublisher,
+                new TransactionTemplate(transactionManager), Duration.ofMillis(200));
+        CountDownLatch firstQueryStarted = new CountDownLatch(1);
+        List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        when(bookRepository.findResponsesByIds(any())).thenAnswer(invocation -> {
+            List<Long> ids = Arrays.asList((Long[]) invocation.getArgument(0));
+            batches.add(ids);
+            if (batches.size() == 1) {
+                firstQueryStarted.countDown();
+                Thread.sleep(100);
+            }
+            return ids.stream()
+                    .filter(id -> id != 3L)
+                    .map(id -> new BookResponse(id, "Book " + id, 1L, 2000, "Genre"))
+                    .toList();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<BookResponse> first = executor.submit(() -> bookService.getBookById(1L));
+            assertTrue(firstQueryStarted.await(5, TimeUnit.SECONDS));
+            Future<BookResponse> second = executor.submit(() -> bookService.getBookById(2L));
+            Future<BookResponse> missing = executor.submit(() -> bookService.getBookById(3L));
+
+            assertEquals("Book 1", first.get(5, TimeUnit.SECONDS).getTitle());
+            assertEquals("Book 2", second.get(5, TimeUnit.SECONDS).getTitle());
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(BookNotFoundException.class, exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        // первый запрос выполняется сразу, пришедшие во время него объединяются в один следующий
+        assertEquals(List.of(List.of(1L), List.of(2L, 3L)), batches.stream().map(batch -> batch.stream().sorted().toList()).toList());
+        // результаты попадают в кэш, поэтому пакеты читаются не в транзакции только для чтения (не с реплики)
+        verify(transactionManager, times(2)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void getBooksByIds_PreservesRequestedOrderAndReportsMissing() {
+        when(bookRepository.findResponsesByIds(new Long[]{3L, 1L, 2L})).thenReturn(List.of(
+                new BookResponse(1L, "Book 1", 1L, 2000, "Genre"),
+                new BookResponse(3L, "Book 3", 1L, 2000, "Genre")));
+
+        MultiGetResponse<BookResponse> result = bookService.getBooksByIds(List.of(3L, 1L, 3L, 2L));
+
+        assertEquals(List.of(3L, 1L), result.getItems().stream().map(BookResponse::getId).toList());
+        assertEquals(List.of(2L), result.getMissingIds());
+        verify(bookRepository, times(1)).findResponsesByIds(any());
     }
 
     @Test
     void updateBook_Success() {
+        ReflectionTestUtils.setField(book, "version", 3L);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
-        bookService.updateBook(1L, bookRequest);
+        when(bookRepository.saveAndFlush(any(Book.class))).thenAnswer(invocation -> {
+            Book saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "version", 4L);
+            return saved;
+        });
+        assertEquals(4L, bookService.updateBook(1L, bookRequest, 3L));
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
         assertEquals(bookRequest.getTitle(), book.getTitle());
         assertEquals(bookRequest.getYear(), book.getYear());
         assertEquals(bookRequest.getGenre(), book.getGenre());
+        verify(eventPublisher).publishEvent(argThat((CatalogChangedEvent event) ->
+                event.getId() == 1L && "Test book".equals(event.getName())));
+    }
+
+    @Test
+    void updateBook_WithoutExpectedVersion_Success() {
+        ReflectionTestUtils.setField(book, "version", 0L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
+        bookService.updateBook(1L, bookRequest, null);
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
+    }
+
+    @Test
+    void updateBook_VersionMismatch_ThrowsException() {
+        ReflectionTestUtils.setField(book, "version", 5L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        BookVersionMismatchException exception = assertThrows(BookVersionMismatchException.class,
+                () -> bookService.updateBook(1L, bookRequest, 4L));
+        assertEquals("Книга с ID 1 была изменена: текущая версия 5", exception.getMessage());
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void updateBook_NotFound_ThrowsException() {
         when(bookRepository.findById(1L)).thenReturn(Optional.empty());
         BookNotFoundException exception = assertThrows(BookNotFoundException.class,
-                () -> bookService.updateBook(1L, bookRequest));
+                () -> bookService.updateBook(1L, bookRequest, null));
         assertEquals("Книга с ID 1 не найдена", exception.getMessage());
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
+    }
+
+    @Test
+    void getBookVersion_ReadsFromPrimary() {
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        assertEquals(3L, bookService.getBookVersion(1L));
+        // версия сравнивается с ETag ответа, тело которого читается с основной базы данных
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void getBookVersion_NotFound_ThrowsException() {
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.empty());
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookVersion(1L));
     }
 
     @Test
     void deleteBook_Success() {
-        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.deleteBookById(1L)).thenReturn(1);
         bookService.deleteBook(1L);
-        verify(bookRepository, times(1)).existsById(1L);
-        verify(bookRepository, times(1)).deleteById(1L);
+        verify(bookRepository, times(1)).deleteBookById(1L);
+        verify(bookRepository, never()).existsById(anyLong());
+        verify(eventPublisher).publishEvent(argThat((CatalogChangedEvent event) ->
+                event.getId() == 1L && event.isDeleted()));
     }
 
     @Test
     void deleteBook_NotFound_ThrowsException() {
-        when(bookRepository.existsById(1L)).thenReturn(false);
+        when(bookRepository.deleteBookById(1L)).thenReturn(0);
         BookNotFoundException exception = assertThrows(BookNotFoundException.class,
                 () -> bookService.deleteBook(1L));
         assertEquals("Книга с ID 1 не найдена", exception.getMessage());
-        verify(bookRepository, times(1)).existsById(1L);
-        verify(bookRepository, never()).deleteById(1L);
+        verify(bookRepository, times(1)).deleteBookById(1L);
+        verify(bookRepository, never()).existsById(anyLong());
     }
 }
\ No newline at end of file
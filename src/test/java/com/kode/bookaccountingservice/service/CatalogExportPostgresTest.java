@@ -0,0 +1,56 @@
+package com.kode.bookaccountingservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.EmbeddedPostgresSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет на встроенном PostgreSQL, что выгрузка NDJSON запросом COPY не искажает строки
+ * со спецсимволами JSON и COPY.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CatalogExportPostgresTest extends EmbeddedPostgresSupport {
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        clean(jdbcTemplate);
+    }
+
+    @Test
+    void exportBooks_NdjsonKeepsQuotesBackslashesAndNewlines() throws Exception {
+        String title = "Он сказал: \"Нет\" \\ C:\\книги\\n\nвторая строка\tс табуляцией";
+        long authorId = jdbcTemplate.queryForObject("insert into authors (id, name) values (nextval('author_seq'), 'Автор') " +
+                "returning id", Long.class);
+        jdbcTemplate.update("insert into books (id, title, author_id, year, genre) values (nextval('book_seq'), ?, ?, 1836, 'Роман')",
+                title, authorId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = catalogExportService.exportBooks(CatalogFormat.NDJSON, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, rows);
+        assertEquals(1, lines.size(), () -> "Перевод строки в наименовании разбил запись: " + lines);
+        JsonNode book = objectMapper.readTree(lines.get(0));
+        assertEquals(title, book.get("title").asText());
+        assertEquals(authorId, book.get("authorId").asLong());
+    }
+}
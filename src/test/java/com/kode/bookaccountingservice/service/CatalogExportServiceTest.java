@@ -0,0 +1,96 @@
+package com.kode.bookaccountingservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.UncategorizedSQLException;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogExportServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PGConnection pgConnection;
+
+    @Mock
+    private CopyManager copyManager;
+
+    private CatalogExportService catalogExportService;
+
+    private static final String CSV = "id,title,authorId,year,genre\n1,Война и мир,1,1869,Роман\n";
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        catalogExportService = new CatalogExportService(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    }
+
+    @Test
+    void exportBooks_CsvCopiedToOutputAndConnectionReleased() throws Exception {
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(CSV.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1L, catalogExportService.exportBooks(CatalogFormat.CSV, false, out));
+
+        assertEquals(CSV, out.toString(StandardCharsets.UTF_8));
+        verify(copyManager).copyOut(eq("copy (" + CatalogExportService.BOOKS_QUERY + ") to stdout with (format csv, header)"),
+                same(out));
+        verify(connection).close();
+    }
+
+    @Test
+    void exportAuthors_NdjsonGzippedOnTheFly() throws Exception {
+        String ndjson = "{\"id\":1,\"name\":\"Лев Толстой\",\"birthYear\":1828}\n";
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(ndjson.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        catalogExportService.exportAuthors(CatalogFormat.NDJSON, true, out);
+
+        verify(copyManager).copyOut(startsWith("copy (select row_to_json(r) from (" + CatalogExportService.AUTHORS_QUERY),
+                any(OutputStream.class));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(ndjson, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void exportBooks_CopyErrorTranslatedAndConnectionReleased() throws Exception {
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenThrow(new SQLException("canceling statement"));
+
+        assertThrows(UncategorizedSQLException.class,
+                () -> catalogExportService.exportBooks(CatalogFormat.CSV, false, new ByteArrayOutputStream()));
+        verify(connection).close();
+    }
+}
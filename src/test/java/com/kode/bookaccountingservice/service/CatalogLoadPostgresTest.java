@@ -0,0 +1,296 @@
+package com.kode.bookaccountingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.EmbeddedPostgresSupport;
+import com.kode.bookaccountingservice.dto.AuthorDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.event.CatalogLoadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет массовую загрузку на встроенном PostgreSQL: COPY во временную таблицу, проверки записей запросами
+ * над всей таблицей и перенос в authors, books и журнал изменений.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.delta.safety-window=" + CatalogLoadPostgresTest.SAFETY_WINDOW_MILLIS + "ms")
+class CatalogLoadPostgresTest extends EmbeddedPostgresSupport {
+
+    static final long SAFETY_WINDOW_MILLIS = 500;
+
+    private static final String REPEATED = "Книга с таким наименованием уже есть в загружаемых данных";
+    private static final String EXISTING = "Книга с таким наименованием уже добавлена в базу";
+    private static final String MALFORMED_JSON = "{\"title\":\"Идиот\",\"author\":";
+
+    @Autowired
+    private CatalogLoadService catalogLoadService;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private LoadPause loadPause;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        clean(jdbcTemplate);
+        long authorId = jdbcTemplate.queryForObject("insert into authors (id, name) " +
+                "values (nextval('author_seq'), 'Александр Пушкин') returning id", Long.class);
+        jdbcTemplate.update("insert into books (id, title, author_id, year, genre) " +
+                "values (nextval('book_seq'), 'Капитанская дочка', ?, 1836, 'Роман')", authorId);
+        jdbcTemplate.update("insert into books (id, title, author_id, year, genre, deleted) " +
+                "values (nextval('book_seq'), 'Дубровский', ?, 1841, 'Роман', true)", authorId);
+    }
+
+    @Test
+    void loadBooks_Csv() throws Exception {
+        String csv = """
+                genre,title,author,year
+                Роман,Евгений Онегин,Александр Пушкин,1833
+                Роман,Капитанская дочка,Александр Пушкин,1836
+                Роман,Дубровский,Александр Пушкин,1841
+                Роман,Евгений Онегин,Александр Пушкин,1833
+                Роман,"Война и мир, том 1",Лев Толстой,1869
+                Роман,Анна Каренина,Лев Толстой,18x
+                Роман,Воскресение,Лев Толстой,2999
+                Повесть,Нос,Го,1836
+                """;
+
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.CSV, input(csv));
+
+        assertEquals(8, response.getReceived());
+        assertEquals(3, response.getCreated());
+        assertEquals(1, response.getAuthorsCreated());
+        assertEquals(5, response.getRejected());
+        assertEquals(List.of(
+                rejected(1, "title", EXISTING),
+                rejected(3, "title", REPEATED),
+                rejected(5, "year", "Значение должно быть целым числом"),
+                rejected(6, "year", "Год не должен быть больше текущего"),
+                rejected(7, "author", "Имя не должно быть меньше 3 больше 100 символов")), rejectedRows(response));
+        assertEquals(List.of(
+                Map.of("title", "Война и мир, том 1", "name", "Лев Толстой", "year", 1869),
+                Map.of("title", "Дубровский", "name", "Александр Пушкин", "year", 1841),
+                Map.of("title", "Евгений Онегин", "name", "Александр Пушкин", "year", 1833)), loadedBooks());
+        assertEquals(List.of("Александр Пушкин", "Лев Толстой"),
+                jdbcTemplate.queryForList("select name from authors order by id", String.class));
+        assertEquals(List.of("AUTHOR Лев Толстой", "BOOK Война и мир, том 1", "BOOK Дубровский", "BOOK Евгений Онегин"),
+                changeEvents());
+    }
+
+    @Test
+    void loadBooks_Ndjson() throws Exception {
+        String ndjson = """
+                {"title":"Война и мир","author":"Лев Толстой","year":1869,"genre":"Роман"}
+                {"title":"Капитанская дочка","author":"Александр Пушкин","year":"1836","genre":"Роман"}
+
+                {"genre":"Роман","year":1841,"author":"Александр Пушкин","title":"Дубровский"}
+                {"title":"Война и мир","author":"Лев Толстой","year":1869,"genre":"Роман"}
+                {"title":"Нос","author":"Го","year":1836,"genre":"Повесть"}
+                {"title":"Бесы","author":"Фёдор Достоевский","year":1871.5,"genre":"Роман"}
+                %s
+                [1, 2]
+                """.formatted(MALFORMED_JSON);
+
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.NDJSON, input(ndjson));
+
+        assertEquals(8, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getAuthorsCreated());
+        assertEquals(6, response.getRejected());
+        assertEquals(List.of(
+                rejected(1, "title", EXISTING),
+                rejected(3, "title", REPEATED),
+                rejected(4, "author", "Имя не должно быть меньше 3 больше 100 символов"),
+                rejected(5, "year", "Значение должно быть целым числом"),
+                rejected(6, "book", "Некорректный JSON: " + parseError(MALFORMED_JSON)),
+                rejected(7, "book", "Некорректный JSON: ожидается объект")), rejectedRows(response));
+        assertEquals(List.of(
+                Map.of("title", "Война и мир", "name", "Лев Толстой", "year", 1869),
+                Map.of("title", "Дубровский", "name", "Александр Пушкин", "year", 1841)), loadedBooks());
+        assertEquals(List.of("AUTHOR Лев Толстой", "BOOK Война и мир", "BOOK Дубровский"), changeEvents());
+    }
+
+    @Test
+    void loadBooks_TrimsPaddedValues() throws Exception {
+        String ndjson = """
+                {"title":"  Капитанская дочка ","author":"Александр Пушкин","year":1836,"genre":"Роман"}
+                {"title":" Война и мир ","author":" Лев Толстой","year":" 1869 ","genre":" Роман "}
+                {"title":"Анна Каренина","author":"Лев Толстой  ","year":1877,"genre":"Роман"}
+                {"title":"Война и мир","author":"Лев Толстой","year":1869,"genre":"Роман"}
+                {"title":"Дубровский","author":" Александр Пушкин ","year":1841,"genre":"Роман"}
+                {"title":"Нос","author":"  Го  ","year":1836,"genre":"Повесть"}
+                """;
+
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.NDJSON, input(ndjson));
+
+        assertEquals(3, response.getCreated());
+        assertEquals(1, response.getAuthorsCreated());
+        assertEquals(List.of(
+                rejected(0, "title", EXISTING),
+                rejected(3, "title", REPEATED),
+                rejected(5, "author", "Имя не должно быть меньше 3 больше 100 символов")), rejectedRows(response));
+        assertEquals(List.of(
+                Map.of("title", "Анна Каренина", "name", "Лев Толстой", "year", 1877),
+                Map.of("title", "Война и мир", "name", "Лев Толстой", "year", 1869),
+                Map.of("title", "Дубровский", "name", "Александр Пушкин", "year", 1841)), loadedBooks());
+        assertEquals(List.of("Александр Пушкин", "Лев Толстой"),
+                jdbcTemplate.queryForList("select name from authors order by id", String.class));
+        assertEquals(List.of("Роман"), jdbcTemplate.queryForList("select distinct genre from books", String.class));
+        assertEquals(List.of("AUTHOR Лев Толстой", "BOOK Анна Каренина", "BOOK Война и мир", "BOOK Дубровский"),
+                changeEvents());
+    }
+
+    /**
+     * Загрузка, которая фиксируется позже окна безопасности после вставки строк: клиент, запросивший изменения
+     * до фиксации, получает метку позже времени вставки и все равно должен получить загруженные записи.
+     */
+    @Test
+    void loadBooks_DeltaReadDuringLoadReceivesLoadedRowsAfterCommit() throws Exception {
+        String bookWatermark = deltaSyncService.getBookChanges(null, null).getWatermark();
+        String authorWatermark = deltaSyncService.getAuthorChanges(null, null).getWatermark();
+        List<String> titles = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        String csv = """
+                title,author,year,genre
+                Война и мир,Лев Толстой,1869,Роман
+                Дубровский,Александр Пушкин,1841,Роман
+                """;
+
+        CompletableFuture<CatalogLoadResponse> load = loadPause.pauseNextLoad(
+                () -> catalogLoadService.loadBooks(CatalogFormat.CSV, input(csv)));
+        try {
+            assertTrue(loadPause.paused.await(10, TimeUnit.SECONDS));
+            // строки вставлены, но не зафиксированы; время вставки уходит за границу окна
+            Thread.sleep(3 * SAFETY_WINDOW_MILLIS);
+            bookWatermark = readBooks(bookWatermark, titles);
+            authorWatermark = readAuthors(authorWatermark, names);
+            assertFalse(titles.contains("Война и мир"));
+        } finally {
+            loadPause.resume.countDown();
+        }
+        assertEquals(2, load.get(10, TimeUnit.SECONDS).getCreated());
+        Thread.sleep(3 * SAFETY_WINDOW_MILLIS);
+        readBooks(bookWatermark, titles);
+        readAuthors(authorWatermark, names);
+
+        assertTrue(titles.containsAll(List.of("Война и мир", "Дубровский")), () -> "Выданы книги " + titles);
+        assertTrue(names.contains("Лев Толстой"), () -> "Выданы авторы " + names);
+    }
+
+    private String readBooks(String watermark, List<String> titles) {
+        DeltaResponse<BookDeltaResponse> delta = deltaSyncService.getBookChanges(watermark, null);
+        delta.getItems().forEach(book -> titles.add(book.getTitle()));
+        return delta.getWatermark();
+    }
+
+    private String readAuthors(String watermark, List<String> names) {
+        DeltaResponse<AuthorDeltaResponse> delta = deltaSyncService.getAuthorChanges(watermark, null);
+        delta.getItems().forEach(author -> names.add(author.getName()));
+        return delta.getWatermark();
+    }
+
+    private static String parseError(String json) {
+        JsonProcessingException exception = assertThrows(JsonProcessingException.class,
+                () -> new ObjectMapper().readTree(json));
+        return exception.getOriginalMessage();
+    }
+
+    private static ByteArrayInputStream input(String data) {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> rejected(int index, String field, String error) {
+        return Map.of("index", index, "field", field, "error", error);
+    }
+
+    private static List<Map<String, Object>> rejectedRows(CatalogLoadResponse response) {
+        return response.getRejectedRows().stream()
+                .peek(row -> assertEquals(BookImportResult.Status.REJECTED, row.getStatus()))
+                .map(row -> {
+                    Map.Entry<String, String> error = row.getErrors().entrySet().iterator().next();
+                    return Map.<String, Object>of("index", row.getIndex(), "field", error.getKey(), "error", error.getValue());
+                })
+                .toList();
+    }
+
+    /**
+     * Книги, добавленные загрузкой, с именами авторов; порядок вставки в одном запросе не определен,
+     * поэтому книги упорядочены по наименованию.
+     */
+    private List<Map<String, Object>> loadedBooks() {
+        return jdbcTemplate.queryForList("select b.title, a.name, b.year from books b join authors a on a.id = b.author_id " +
+                "where b.deleted = false and b.title <> 'Капитанская дочка' order by b.title collate \"C\"");
+    }
+
+    private List<String> changeEvents() {
+        return jdbcTemplate.queryForList("select entity || ' ' || name from change_events order by entity, name collate \"C\"",
+                String.class);
+    }
+
+    @TestConfiguration
+    static class LoadPauseConfig {
+        @Bean
+        LoadPause loadPause() {
+            return new LoadPause();
+        }
+    }
+
+    /**
+     * Приостанавливает загрузку в транзакции после переноса записей, до фиксации:
+     * событие CatalogLoadedEvent публикуется синхронно внутри транзакции загрузки.
+     */
+    static class LoadPause {
+        private final CountDownLatch paused = new CountDownLatch(1);
+        private final CountDownLatch resume = new CountDownLatch(1);
+        private volatile boolean armed;
+
+        CompletableFuture<CatalogLoadResponse> pauseNextLoad(LoadCall call) {
+            armed = true;
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.load();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        @EventListener
+        void onCatalogLoaded(CatalogLoadedEvent event) throws InterruptedException {
+            if (armed) {
+                armed = false;
+                paused.countDown();
+                resume.await(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    interface LoadCall {
+        CatalogLoadResponse load() throws Exception;
+    }
+}
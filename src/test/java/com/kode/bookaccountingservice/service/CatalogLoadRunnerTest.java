@@ -0,0 +1,55 @@
+package com.kode.bookaccountingservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что режим загрузки из командной строки определяется свойством app.load.file,
+ * откуда бы оно ни было задано, а не аргументом командной строки.
+ */
+class CatalogLoadRunnerTest {
+
+    @Test
+    void disableWebServerIfRequested_PropertyFromAnySource_StartsWithoutWebServer() {
+        SpringApplication application = application();
+        application.setDefaultProperties(Map.of(CatalogLoadRunner.FILE_PROPERTY, "books.csv"));
+
+        try (ConfigurableApplicationContext context = application.run("--spring.main.web-application-type=reactive")) {
+            assertTrue(CatalogLoadRunner.isRequested(context.getEnvironment()));
+            assertEquals(WebApplicationType.NONE, application.getWebApplicationType());
+            assertFalse(context instanceof WebServerApplicationContext);
+        }
+    }
+
+    @Test
+    void disableWebServerIfRequested_NoProperty_KeepsApplicationType() {
+        SpringApplication application = application();
+
+        try (ConfigurableApplicationContext context = application.run("--spring.main.web-application-type=none",
+                "--app.other=books.csv")) {
+            assertFalse(CatalogLoadRunner.isRequested(context.getEnvironment()));
+            assertNull(context.getEnvironment().getPropertySources().get("catalogLoad"));
+        }
+    }
+
+    private static SpringApplication application() {
+        SpringApplication application = new SpringApplication(EmptyConfig.class);
+        ApplicationListener<ApplicationEnvironmentPreparedEvent> listener = CatalogLoadRunner::disableWebServerIfRequested;
+        application.addListeners(listener);
+        return application;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class EmptyConfig {
+    }
+}
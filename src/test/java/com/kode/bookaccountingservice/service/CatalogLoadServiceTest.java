@@ -0,0 +1,190 @@
+package com.kode.bookaccountingservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kode.bookaccountingservice.dto.BookImportResult;
+import com.kode.bookaccountingservice.dto.CatalogLoadResponse;
+import com.kode.bookaccountingservice.event.CatalogLoadedEvent;
+import com.kode.bookaccountingservice.exception.InvalidCatalogFileException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogLoadServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PGConnection pgConnection;
+
+    @Mock
+    private CopyManager copyManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CatalogLoadService catalogLoadService;
+
+    @BeforeEach
+    void setUp() {
+        catalogLoadService = new CatalogLoadService(dataSource, jdbcTemplate, new ObjectMapper(), eventPublisher);
+    }
+
+    @Test
+    void loadBooks_CsvCopiedInHeaderOrderAndMerged() throws Exception {
+        mockCopyApi();
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        when(copyManager.copyIn(anyString(), any(InputStream.class), anyInt())).thenAnswer(invocation -> {
+            invocation.<InputStream>getArgument(1).transferTo(copied);
+            return 2L;
+        });
+        mockMerge(created(1, 201L, 201L), created(1, 251L, 251L));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(CatalogLoadService.MAX_REJECTED_ROWS)))
+                .thenReturn(List.of(BookImportResult.rejected(1, Map.of("title", "Книга с таким наименованием уже добавлена в базу"))));
+        String csv = "\uFEFFgenre,\"title\",author,year\r\nРоман,Война и мир,Лев Толстой,1869\r\nРоман,Анна Каренина,Лев Толстой,1877\r\n";
+
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.CSV, toStream(csv));
+
+        verify(copyManager).copyIn(eq("copy book_load (genre, title, author, year) from stdin with (format csv)"),
+                any(InputStream.class), anyInt());
+        assertEquals("Роман,Война и мир,Лев Толстой,1869\r\nРоман,Анна Каренина,Лев Толстой,1877\r\n",
+                copied.toString(StandardCharsets.UTF_8));
+        assertEquals(2, response.getReceived());
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getAuthorsCreated());
+        assertEquals(1, response.getRejected());
+        assertEquals(1, response.getRejectedRows().get(0).getIndex());
+
+        ArgumentCaptor<CatalogLoadedEvent> event = ArgumentCaptor.forClass(CatalogLoadedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(251L, event.getValue().getFirstBookId());
+        assertEquals(201L, event.getValue().getLastAuthorId());
+        verify(jdbcTemplate).update(CatalogLoadService.STAMP_AUTHORS, 201L, 201L);
+        verify(jdbcTemplate).update(CatalogLoadService.STAMP_BOOKS, 251L, 251L);
+        verify(connection).close();
+    }
+
+    @Test
+    void loadBooks_NdjsonConvertedToCsvWithLineNumbers() throws Exception {
+        mockCopyApi();
+        CopyIn copyIn = mock(CopyIn.class);
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+        doAnswer(invocation -> {
+            copied.write(invocation.<byte[]>getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        when(copyIn.isActive()).thenReturn(true);
+        mockMerge(created(0, null, null), created(0, null, null));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(CatalogLoadService.MAX_REJECTED_ROWS)))
+                .thenReturn(List.of());
+        String ndjson = "{\"title\":\"Сказка \\\"о\\\" рыбаке\",\"author\":\"Пушкин\",\"year\":1835,\"genre\":\"Сказка\"}\n" +
+                "\n" +
+                "{\"title\":\"Без года\"\n";
+
+        CatalogLoadResponse response = catalogLoadService.loadBooks(CatalogFormat.NDJSON, toStream(ndjson));
+
+        String csv = copied.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("1,\"Сказка \"\"о\"\" рыбаке\",\"Пушкин\",\"1835\",\"Сказка\",,\n2,,,,,\"book\",\"Некорректный JSON: "),
+                csv);
+        assertEquals(2, response.getReceived());
+        assertEquals(2, response.getRejected());
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(jdbcTemplate, never()).update(eq(CatalogLoadService.STAMP_BOOKS), any(Object[].class));
+    }
+
+    @Test
+    void loadBooks_MalformedCsvRejectedAsInvalidFile() throws Exception {
+        mockCopyApi();
+        when(copyManager.copyIn(anyString(), any(InputStream.class), anyInt()))
+                .thenThrow(new PSQLException("missing data for column \"year\"", PSQLState.DATA_ERROR));
+
+        assertThrows(InvalidCatalogFileException.class, () -> catalogLoadService.loadBooks(CatalogFormat.CSV,
+                toStream("title,author,year,genre\nВойна и мир,Лев Толстой\n")));
+        verify(connection).close();
+        verify(jdbcTemplate, never()).queryForObject(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    void parseHeader_ChecksColumns() {
+        assertEquals(List.of("year", "genre", "author", "title"), CatalogLoadService.parseHeader(" year,genre,\"author\",title"));
+        assertThrows(InvalidCatalogFileException.class, () -> CatalogLoadService.parseHeader(null));
+        assertThrows(InvalidCatalogFileException.class, () -> CatalogLoadService.parseHeader("title,author,year,genre,isbn"));
+        assertThrows(InvalidCatalogFileException.class, () -> CatalogLoadService.parseHeader("title,author,year,title"));
+        InvalidCatalogFileException e = assertThrows(InvalidCatalogFileException.class,
+                () -> CatalogLoadService.parseHeader("title,author"));
+        assertEquals("В заголовке CSV отсутствуют поля: year, genre", e.getMessage());
+    }
+
+    @Test
+    void validateQuery_ChecksYearFormatBeforeCast() {
+        String validate = CatalogLoadService.VALIDATE;
+        assertTrue(validate.indexOf("!~ '^-?[0-9]{1,9}$'") < validate.indexOf("::int"));
+        // по ветке на проверку в поле ошибки, в сообщении и в условии отбора записей
+        assertEquals(CatalogLoadService.CHECKS.size() * 3, validate.split(" when ", -1).length - 1);
+    }
+
+    private void mockCopyApi() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    }
+
+    /**
+     * Возвращает результаты запросов переноса через RowMapper сервиса: сначала авторы, затем книги.
+     */
+    private void mockMerge(ResultSet authors, ResultSet books) {
+        when(jdbcTemplate.queryForObject(eq(CatalogLoadService.MERGE_AUTHORS), any(RowMapper.class)))
+                .thenAnswer(invocation -> invocation.<RowMapper<?>>getArgument(1).mapRow(authors, 0));
+        when(jdbcTemplate.queryForObject(eq(CatalogLoadService.MERGE_BOOKS), any(RowMapper.class)))
+                .thenAnswer(invocation -> invocation.<RowMapper<?>>getArgument(1).mapRow(books, 0));
+    }
+
+    private static ResultSet created(long count, Long firstId, Long lastId) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(count);
+        when(resultSet.getObject(2, Long.class)).thenReturn(firstId);
+        when(resultSet.getObject(3, Long.class)).thenReturn(lastId);
+        return resultSet;
+    }
+
+    private static InputStream toStream(String data) {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
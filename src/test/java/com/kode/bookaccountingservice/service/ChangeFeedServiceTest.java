@@ -0,0 +1,139 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.ChangeEventResponse;
+import com.kode.bookaccountingservice.dto.ChangeFeedResponse;
+import com.kode.bookaccountingservice.entity.ChangeEvent;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.repository.ChangeEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeEventRepository changeEventRepository;
+
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        changeFeedService = new ChangeFeedService(changeEventRepository, 500, Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static ChangeEventResponse event(long sequence) {
+        return new ChangeEventResponse(sequence, CatalogChangedEvent.Entity.BOOK, sequence, ChangeEvent.Operation.SAVED,
+                "Книга " + sequence, Instant.now());
+    }
+
+    @Test
+    void record_SavesEventInTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        changeFeedService.record(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.BOOK, 7L));
+
+        ArgumentCaptor<ChangeEvent> captor = ArgumentCaptor.forClass(ChangeEvent.class);
+        verify(changeEventRepository).save(captor.capture());
+        assertEquals(7L, captor.getValue().getEntityId());
+        assertEquals(ChangeEvent.Operation.DELETED, captor.getValue().getOperation());
+        assertNull(captor.getValue().getSequence());
+    }
+
+    @Test
+    void record_OutsideTransactionIsSkipped() {
+        changeFeedService.record(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.AUTHOR, 1L, "Пушкин"));
+        verifyNoInteractions(changeEventRepository);
+    }
+
+    @Test
+    void getChanges_ReturnsNextSinceAndCapsLimit() {
+        when(changeEventRepository.findPublishedAfter(10L, Limit.of(ChangeFeedService.MAX_LIMIT)))
+                .thenReturn(List.of(event(11), event(12)));
+        assertEquals(12L, changeFeedService.getChanges(10L, 100_000).getSince());
+
+        when(changeEventRepository.findPublishedAfter(12L, Limit.of(ChangeFeedService.DEFAULT_LIMIT))).thenReturn(List.of());
+        assertEquals(12L, changeFeedService.getChanges(12L, null).getSince());
+    }
+
+    @Test
+    void publishPending_WithoutLockDoesNothing() {
+        when(changeEventRepository.tryLock(ChangeFeedService.RELAY_LOCK_KEY)).thenReturn(false);
+        assertEquals(0, changeFeedService.publishPending());
+        verify(changeEventRepository, never()).assignSequences(anyInt());
+    }
+
+    @Test
+    void publishPending_AssignsBatch() {
+        when(changeEventRepository.tryLock(ChangeFeedService.RELAY_LOCK_KEY)).thenReturn(true);
+        when(changeEventRepository.assignSequences(500)).thenReturn(3);
+        assertEquals(3, changeFeedService.publishPending());
+    }
+
+    @Test
+    void dispatch_CompletesWaiterOnceEventsArePublished() {
+        CompletableFuture<ChangeFeedResponse> result = changeFeedService.awaitChanges(5L, 10);
+
+        when(changeEventRepository.findLastSequence()).thenReturn(5L);
+        changeFeedService.dispatch();
+        assertFalse(result.isDone());
+
+        when(changeEventRepository.findLastSequence()).thenReturn(6L);
+        when(changeEventRepository.findPublishedAfter(5L, Limit.of(10))).thenReturn(List.of(event(6)));
+        changeFeedService.dispatch();
+        assertEquals(6L, result.join().getSince());
+
+        changeFeedService.dispatch();
+        verify(changeEventRepository, times(1)).findPublishedAfter(anyLong(), any());
+    }
+
+    @Test
+    void dispatch_SubscriberReceivesConsecutiveBatches() {
+        List<Long> received = new ArrayList<>();
+        changeFeedService.subscribe(0L, changes -> changes.getItems().forEach(e -> received.add(e.getSequence())));
+
+        when(changeEventRepository.findLastSequence()).thenReturn(2L, 3L);
+        when(changeEventRepository.findPublishedAfter(0L, Limit.of(ChangeFeedService.MAX_LIMIT)))
+                .thenReturn(List.of(event(1), event(2)));
+        when(changeEventRepository.findPublishedAfter(2L, Limit.of(ChangeFeedService.MAX_LIMIT)))
+                .thenReturn(List.of(event(3)));
+        changeFeedService.dispatch();
+        changeFeedService.dispatch();
+
+        assertEquals(List.of(1L, 2L, 3L), received);
+    }
+
+    @Test
+    void dispatch_FailingSubscriberIsRemoved() {
+        changeFeedService.subscribe(0L, changes -> {
+            throw new IllegalStateException("Клиент отключился");
+        });
+        when(changeEventRepository.findLastSequence()).thenReturn(1L);
+        when(changeEventRepository.findPublishedAfter(0L, Limit.of(ChangeFeedService.MAX_LIMIT))).thenReturn(List.of(event(1)));
+        changeFeedService.dispatch();
+        changeFeedService.dispatch();
+
+        verify(changeEventRepository, times(1)).findLastSequence();
+    }
+}
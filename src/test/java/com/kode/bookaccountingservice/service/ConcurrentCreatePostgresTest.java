@@ -0,0 +1,139 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.EmbeddedPostgresSupport;
+import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.exception.AuthorAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
+import com.kode.bookaccountingservice.exception.BookAlreadyExistsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет на встроенном PostgreSQL, что уникальность наименования книги и имени автора обеспечивается
+ * вставкой с on conflict: из множества одновременных одинаковых запросов успешен ровно один.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ConcurrentCreatePostgresTest extends EmbeddedPostgresSupport {
+
+    private static final int REQUESTS = 200;
+    private static final String CREATED = "created";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        clean(jdbcTemplate);
+    }
+
+    @Test
+    void addAuthor_ParallelIdenticalRequestsCreateOneAuthor() throws Exception {
+        AuthorRequest request = new AuthorRequest();
+        request.setName("Лев Толстой");
+        request.setBirthYear(1828);
+
+        Map<String, Long> outcomes = runConcurrently(() -> authorService.addAuthor(request));
+
+        assertEquals(Map.of(CREATED, 1L, AuthorAlreadyExistsException.class.getSimpleName(), (long) REQUESTS - 1), outcomes);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from authors where name = 'Лев Толстой'", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from change_events where entity = 'AUTHOR'", Long.class));
+    }
+
+    @Test
+    void addBook_ParallelIdenticalRequestsCreateOneBook() throws Exception {
+        long authorId = insertAuthor("Лев Толстой");
+        BookRequest request = bookRequest("Война и мир", authorId);
+
+        Map<String, Long> outcomes = runConcurrently(() -> bookService.addBook(request));
+
+        // проигравшие запросы получают 409, а не 404: автор существует, занято наименование
+        assertEquals(Map.of(CREATED, 1L, BookAlreadyExistsException.class.getSimpleName(), (long) REQUESTS - 1), outcomes);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from books where title = 'Война и мир'", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from change_events where entity = 'BOOK'", Long.class));
+    }
+
+    @Test
+    void addBook_TitleOfDeletedBookCanBeReused() {
+        long authorId = insertAuthor("Лев Толстой");
+        bookService.addBook(bookRequest("Война и мир", authorId));
+        long id = jdbcTemplate.queryForObject("select id from books where title = 'Война и мир'", Long.class);
+        bookService.deleteBook(id);
+
+        bookService.addBook(bookRequest("Война и мир", authorId));
+
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from books where title = 'Война и мир'", Long.class));
+        assertThrows(BookAlreadyExistsException.class, () -> bookService.addBook(bookRequest("Война и мир", authorId)));
+    }
+
+    @Test
+    void addBook_MissingAuthorReportedAsNotFound() {
+        assertThrows(AuthorNotFoundException.class, () -> bookService.addBook(bookRequest("Война и мир", -1L)));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from books", Long.class));
+    }
+
+    /**
+     * Запускает одинаковые запросы одновременно и считает их исходы: успешные и по классу исключения.
+     */
+    private Map<String, Long> runConcurrently(Runnable request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        request.run();
+                        return CREATED;
+                    } catch (RuntimeException e) {
+                        return e.getClass().getSimpleName();
+                    }
+                }));
+            }
+            start.countDown();
+            List<String> outcomes = new ArrayList<>();
+            for (Future<String> result : results) {
+                outcomes.add(result.get());
+            }
+            return outcomes.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long insertAuthor(String name) {
+        return jdbcTemplate.queryForObject("insert into authors (id, name) values (nextval('author_seq'), ?) returning id",
+                Long.class, name);
+    }
+
+    private static BookRequest bookRequest(String title, long authorId) {
+        BookRequest request = new BookRequest();
+        request.setTitle(title);
+        request.setAuthorId(authorId);
+        request.setYear(1869);
+        request.setGenre("Роман");
+        return request;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.BookDeltaResponse;
+import com.kode.bookaccountingservice.dto.DeltaResponse;
+import com.kode.bookaccountingservice.exception.InvalidCursorException;
+import com.kode.bookaccountingservice.exception.WatermarkExpiredException;
+import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import com.kode.bookaccountingservice.service.WatermarkCodec.Watermark;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeltaSyncServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    private DeltaSyncService deltaSyncService;
+
+    @BeforeEach
+    void setUp() {
+        deltaSyncService = new DeltaSyncService(bookRepository, authorRepository, Duration.ofSeconds(10), Duration.ofDays(30));
+    }
+
+    private static BookDeltaResponse book(long id, Instant updatedAt) {
+        return new BookDeltaResponse(id, "Книга " + id, 1L, 2000, "Роман", false, updatedAt);
+    }
+
+    @Test
+    void getBookChanges_InitialSyncSkipsTombstonesAndWithholdsSafetyWindow() {
+        when(bookRepository.findChangedAfter(any(), anyLong(), any(), anyBoolean(), anyInt())).thenReturn(List.of());
+
+        Instant start = Instant.now();
+        DeltaResponse<BookDeltaResponse> response = deltaSyncService.getBookChanges(null, null);
+
+        ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+        verify(bookRepository).findChangedAfter(eq(Instant.EPOCH), eq(0L), before.capture(), eq(false), eq(501));
+        assertFalse(before.getValue().isAfter(start.minusSeconds(10).plusSeconds(1)));
+        assertFalse(response.isHasMore());
+        // при отсутствии изменений метка переносится на границу окна, а не остается в начале каталога
+        Watermark next = WatermarkCodec.decode(response.getWatermark());
+        assertEquals(before.getValue().truncatedTo(ChronoUnit.MICROS), next.getUpdatedAt());
+        assertEquals(0L, next.getId());
+    }
+
+    @Test
+    void getBookChanges_FullPageContinuesFromLastItem() {
+        Instant updatedAt = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MICROS);
+        when(bookRepository.findChangedAfter(any(), anyLong(), any(), anyBoolean(), anyInt()))
+                .thenReturn(List.of(book(1L, updatedAt), book(2L, updatedAt), book(3L, updatedAt)));
+
+        String since = WatermarkCodec.encode(new Watermark(updatedAt.minusSeconds(60), 0L));
+        DeltaResponse<BookDeltaResponse> response = deltaSyncService.getBookChanges(since, 2);
+
+        verify(bookRepository).findChangedAfter(eq(updatedAt.minusSeconds(60)), eq(0L), any(), eq(true), eq(3));
+        assertEquals(2, response.getItems().size());
+        assertTrue(response.isHasMore());
+        Watermark next = WatermarkCodec.decode(response.getWatermark());
+        assertEquals(updatedAt, next.getUpdatedAt());
+        assertEquals(2L, next.getId());
+    }
+
+    @Test
+    void getBookChanges_ExpiredWatermarkRejected() {
+        String since = WatermarkCodec.encode(new Watermark(Instant.now().minus(31, ChronoUnit.DAYS), 5L));
+
+        assertThrows(WatermarkExpiredException.class, () -> deltaSyncService.getBookChanges(since, null));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void getAuthorChanges_InvalidWatermarkRejected() {
+        assertThrows(InvalidCursorException.class, () -> deltaSyncService.getAuthorChanges("not-a-watermark", null));
+        verifyNoInteractions(authorRepository);
+    }
+
+    @Test
+    void purgeTombstones_DeletesOlderThanRetention() {
+        when(bookRepository.purgeDeletedBefore(any())).thenReturn(3);
+
+        assertEquals(3, deltaSyncService.purgeTombstones());
+
+        ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+        verify(bookRepository).purgeDeletedBefore(before.capture());
+        assertTrue(before.getValue().isBefore(Instant.now().minus(29, ChronoUnit.DAYS)));
+    }
+}
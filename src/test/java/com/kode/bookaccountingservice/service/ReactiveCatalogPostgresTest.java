@@ -0,0 +1,187 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.EmbeddedPostgresSupport;
+import com.kode.bookaccountingservice.dto.AuthorRequest;
+import com.kode.bookaccountingservice.dto.AuthorResponse;
+import com.kode.bookaccountingservice.dto.BookRequest;
+import com.kode.bookaccountingservice.dto.BookResponse;
+import com.kode.bookaccountingservice.dto.CursorPageResponse;
+import com.kode.bookaccountingservice.exception.AuthorAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.AuthorNotFoundException;
+import com.kode.bookaccountingservice.exception.BookAlreadyExistsException;
+import com.kode.bookaccountingservice.exception.BookNotFoundException;
+import com.kode.bookaccountingservice.exception.BookVersionMismatchException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет на встроенном PostgreSQL запросы R2DBC неблокирующих сервисов (профиль reactive):
+ * запись событий в журнал изменений тем же запросом, проверку версии, пометку удаленных книг.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+class ReactiveCatalogPostgresTest extends EmbeddedPostgresSupport {
+
+    @Autowired
+    private ReactiveBookService reactiveBookService;
+
+    @Autowired
+    private ReactiveAuthorService reactiveAuthorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long authorId;
+
+    @BeforeEach
+    void setUp() {
+        clean(jdbcTemplate);
+        reactiveAuthorService.addAuthor(authorRequest("Лев Толстой", 1828)).block();
+        authorId = jdbcTemplate.queryForObject("select id from authors where name = 'Лев Толстой'", Long.class);
+    }
+
+    @Test
+    void addAuthor_RecordsChangeEventAndRejectsDuplicate() {
+        reactiveAuthorService.addAuthor(authorRequest("Пушкин", null)).block();
+
+        assertEquals(List.of(Map.of("name", "Пушкин", "operation", "SAVED")), jdbcTemplate.queryForList(
+                "select e.name, e.operation from change_events e join authors a on a.id = e.entity_id " +
+                        "where e.entity = 'AUTHOR' and a.name = 'Пушкин' and a.birth_year is null"));
+        assertThrows(AuthorAlreadyExistsException.class,
+                () -> reactiveAuthorService.addAuthor(authorRequest("Пушкин", 1799)).block());
+        assertEquals(2, count("select count(*) from change_events where entity = 'AUTHOR'"));
+    }
+
+    @Test
+    void getAuthorById_ReturnsVersion() {
+        AuthorResponse author = reactiveAuthorService.getAuthorById(authorId).block();
+
+        assertEquals("Лев Толстой", author.getName());
+        assertEquals(1828, author.getBirthYear());
+        assertEquals(author.getVersion(), reactiveAuthorService.getAuthorVersion(authorId).block());
+        assertThrows(AuthorNotFoundException.class, () -> reactiveAuthorService.getAuthorById(-1L).block());
+    }
+
+    @Test
+    void addBook_RecordsChangeEventAndChecksTitleAndAuthor() {
+        reactiveBookService.addBook(bookRequest("Война и мир", authorId)).block();
+
+        long bookId = bookId("Война и мир");
+        assertEquals(List.of(Map.of("entity_id", bookId, "operation", "SAVED", "name", "Война и мир")),
+                jdbcTemplate.queryForList("select entity_id, operation, name from change_events where entity = 'BOOK'"));
+        assertThrows(BookAlreadyExistsException.class,
+                () -> reactiveBookService.addBook(bookRequest("Война и мир", authorId)).block());
+        assertThrows(AuthorNotFoundException.class,
+                () -> reactiveBookService.addBook(bookRequest("Анна Каренина", -1L)).block());
+        assertEquals(1, count("select count(*) from books"));
+        assertEquals(1, count("select count(*) from change_events where entity = 'BOOK'"));
+    }
+
+    @Test
+    void updateBook_ChecksExpectedVersion() {
+        reactiveBookService.addBook(bookRequest("Война и мир", authorId)).block();
+        long bookId = bookId("Война и мир");
+        long version = reactiveBookService.getBookVersion(bookId).block();
+
+        long updated = reactiveBookService.updateBook(bookId, bookRequest("Анна Каренина", authorId), version).block();
+
+        assertEquals(version + 1, updated);
+        BookResponse book = reactiveBookService.getBookById(bookId).block();
+        assertEquals("Анна Каренина", book.getTitle());
+        assertEquals(updated, book.getVersion());
+        assertEquals(List.of("Война и мир", "Анна Каренина"), jdbcTemplate.queryForList(
+                "select name from change_events where entity = 'BOOK' and entity_id = ? order by id", String.class, bookId));
+
+        BookVersionMismatchException mismatch = assertThrows(BookVersionMismatchException.class,
+                () -> reactiveBookService.updateBook(bookId, bookRequest("Воскресение", authorId), version).block());
+        assertEquals("Книга с ID " + bookId + " была изменена: текущая версия " + updated, mismatch.getMessage());
+        assertEquals(updated + 1,
+                reactiveBookService.updateBook(bookId, bookRequest("Воскресение", authorId), null).block());
+        assertThrows(BookNotFoundException.class,
+                () -> reactiveBookService.updateBook(-1L, bookRequest("Воскресение", authorId), null).block());
+        assertEquals(3, count("select count(*) from change_events where entity = 'BOOK'"));
+    }
+
+    @Test
+    void deleteBook_MarksBookDeletedAndHidesIt() {
+        reactiveBookService.addBook(bookRequest("Война и мир", authorId)).block();
+        reactiveBookService.addBook(bookRequest("Анна Каренина", authorId)).block();
+        long deletedId = bookId("Война и мир");
+
+        reactiveBookService.deleteBook(deletedId).block();
+
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject("select deleted from books where id = ?", Boolean.class, deletedId));
+        assertEquals(List.of(Map.of("operation", "DELETED")), jdbcTemplate.queryForList(
+                "select operation from change_events where entity_id = ? and operation = 'DELETED'", deletedId));
+        assertThrows(BookNotFoundException.class, () -> reactiveBookService.getBookById(deletedId).block());
+        assertThrows(BookNotFoundException.class, () -> reactiveBookService.getBookVersion(deletedId).block());
+        assertThrows(BookNotFoundException.class,
+                () -> reactiveBookService.updateBook(deletedId, bookRequest("Воскресение", authorId), null).block());
+        assertThrows(BookNotFoundException.class, () -> reactiveBookService.deleteBook(deletedId).block());
+        assertEquals(List.of("Анна Каренина"), titles(reactiveBookService.getBooksPage(null, null).block()));
+        assertEquals(List.of("Анна Каренина"), titles(reactiveBookService.getAuthorBooks(authorId, null, null).block()));
+        assertEquals(List.of("Анна Каренина"),
+                reactiveBookService.streamAllBooks().map(BookResponse::getTitle).collectList().block());
+
+        // наименование удаленной книги снова свободно
+        reactiveBookService.addBook(bookRequest("Война и мир", authorId)).block();
+        assertEquals(2, count("select count(*) from books where title = 'Война и мир'"));
+    }
+
+    @Test
+    void getBooksPage_FollowsCursor() {
+        for (String title : List.of("Война и мир", "Анна Каренина", "Воскресение")) {
+            reactiveBookService.addBook(bookRequest(title, authorId)).block();
+        }
+
+        CursorPageResponse<BookResponse> first = reactiveBookService.getBooksPage(null, 2).block();
+        CursorPageResponse<BookResponse> second = reactiveBookService.getBooksPage(first.getNext(), 2).block();
+
+        assertEquals(List.of("Война и мир", "Анна Каренина"), titles(first));
+        assertEquals(List.of("Воскресение"), titles(second));
+        assertNull(second.getNext());
+    }
+
+    @Test
+    void getAuthorBooks_DistinguishesAuthorWithoutBooksFromMissingAuthor() {
+        assertTrue(reactiveBookService.getAuthorBooks(authorId, null, null).block().getItems().isEmpty());
+        assertThrows(AuthorNotFoundException.class, () -> reactiveBookService.getAuthorBooks(-1L, null, null).block());
+    }
+
+    private long bookId(String title) {
+        return jdbcTemplate.queryForObject("select id from books where title = ? and deleted = false", Long.class, title);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static List<String> titles(CursorPageResponse<BookResponse> page) {
+        return page.getItems().stream().map(BookResponse::getTitle).toList();
+    }
+
+    private static AuthorRequest authorRequest(String name, Integer birthYear) {
+        AuthorRequest request = new AuthorRequest();
+        request.setName(name);
+        request.setBirthYear(birthYear);
+        return request;
+    }
+
+    private static BookRequest bookRequest(String title, long authorId) {
+        BookRequest request = new BookRequest();
+        request.setTitle(title);
+        request.setAuthorId(authorId);
+        request.setYear(1869);
+        request.setGenre("Роман");
+        return request;
+    }
+}
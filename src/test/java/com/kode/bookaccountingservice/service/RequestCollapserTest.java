@@ -0,0 +1,60 @@
+package com.kode.bookaccountingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCollapserTest {
+
+    @Test
+    void load_LoaderThrowsError_CompletesWaitingRequests() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        // окно больше времени ожидания результата: второй пакет выполняется, когда его заполняет второй запрос
+        RequestCollapser<Long, String> collapser = new RequestCollapser<>((Collection<Long> ids) -> {
+            if (ids.contains(1L)) {
+                firstStarted.countDown();
+                await(releaseFirst);
+                return Map.of(1L, "Книга 1");
+            }
+            throw new AssertionError("Ошибка загрузки " + ids);
+        }, Duration.ofMinutes(1), 2);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Optional<String>> first = executor.submit(() -> collapser.load(1L));
+            assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+            Future<Optional<String>> second = executor.submit(() -> collapser.load(2L));
+            Future<Optional<String>> third = executor.submit(() -> collapser.load(3L));
+
+            for (Future<Optional<String>> failed : List.of(second, third)) {
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(AssertionError.class, exception.getCause());
+            }
+            releaseFirst.countDown();
+            assertEquals(Optional.of("Книга 1"), first.get(5, TimeUnit.SECONDS));
+        } finally {
+            releaseFirst.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.kode.bookaccountingservice.service;
+
+import com.kode.bookaccountingservice.dto.SuggestionResponse;
+import com.kode.bookaccountingservice.event.CatalogChangedEvent;
+import com.kode.bookaccountingservice.event.CatalogLoadedEvent;
+import com.kode.bookaccountingservice.repository.AuthorRepository;
+import com.kode.bookaccountingservice.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @InjectMocks
+    private SuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamSuggestions()).thenReturn(Stream.of(
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 1L, "Капитанская дочка"),
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 2L, "Война и мир"),
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 3L, "Ёлка у Ивановых")));
+        when(authorRepository.streamSuggestions()).thenReturn(Stream.of(
+                new SuggestionResponse(SuggestionResponse.Type.AUTHOR, 1L, "Каверин")));
+        suggestService.buildIndex();
+    }
+
+    @Test
+    void suggest_MatchesBooksAndAuthorsByPrefix() {
+        List<SuggestionResponse> result = suggestService.suggest("  КА", null);
+        assertEquals(List.of("Каверин", "Капитанская дочка"), result.stream().map(SuggestionResponse::getText).toList());
+        assertEquals(SuggestionResponse.Type.AUTHOR, result.get(0).getType());
+    }
+
+    @Test
+    void suggest_IgnoresYoAndPunctuation() {
+        assertEquals(3L, suggestService.suggest("елка, у", 10).get(0).getId());
+        assertTrue(suggestService.suggest("!!!", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_LimitIsCapped() {
+        IntStream.range(0, 100).forEach(i -> suggestService.onCatalogChanged(
+                CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, 100 + i, "Том " + i)));
+        assertEquals(SuggestService.MAX_LIMIT, suggestService.suggest("том", 1000).size());
+        assertEquals(1, suggestService.suggest("том", 0).size());
+    }
+
+    @Test
+    void onCatalogChanged_UpdatesAndRemovesEntries() {
+        suggestService.onCatalogChanged(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, 2L, "Анна Каренина"));
+        assertTrue(suggestService.suggest("война", 10).isEmpty());
+        assertEquals(2L, suggestService.suggest("анна", 10).get(0).getId());
+
+        suggestService.onCatalogChanged(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.BOOK, 1L));
+        List<SuggestionResponse> result = suggestService.suggest("ка", 10);
+        assertEquals(1, result.size());
+        assertEquals(SuggestionResponse.Type.AUTHOR, result.get(0).getType());
+    }
+
+    @Test
+    void onCatalogChanged_SameIdDifferentTypesAreIndependent() {
+        suggestService.onCatalogChanged(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.AUTHOR, 1L));
+        assertEquals(List.of(1L), suggestService.suggest("ка", 10).stream().map(SuggestionResponse::getId).toList());
+        assertEquals(SuggestionResponse.Type.BOOK, suggestService.suggest("ка", 10).get(0).getType());
+    }
+
+    @Test
+    void onCatalogLoaded_AddsLoadedRangesToIndex() {
+        when(bookRepository.streamSuggestions(100L, 150L)).thenReturn(Stream.of(
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 100L, "Капитал"),
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 150L, "Каштанка")));
+
+        suggestService.onCatalogLoaded(new CatalogLoadedEvent(100L, 150L, null, null));
+
+        assertEquals(List.of("Каверин", "Капитал", "Капитанская дочка", "Каштанка"),
+                suggestService.suggest("ка", 10).stream().map(SuggestionResponse::getText).toList());
+        verify(authorRepository, never()).streamSuggestions(anyLong(), anyLong());
+    }
+
+    @Test
+    void buildIndex_ChangesDuringBuildAreAppliedAfterIt() {
+        SuggestService building = new SuggestService(bookRepository, authorRepository);
+        building.onCatalogChanged(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, 4L, "Каштанка"));
+        // изменения фиксируются, пока курсор еще выдает прежнее наименование книги 2
+        when(bookRepository.streamSuggestions()).thenReturn(Stream.of(
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 1L, "Капитанская дочка"),
+                new SuggestionResponse(SuggestionResponse.Type.BOOK, 2L, "Война и мир")).peek(book -> {
+            if (book.getId() == 1L) {
+                building.onCatalogChanged(CatalogChangedEvent.saved(CatalogChangedEvent.Entity.BOOK, 2L, "Анна Каренина"));
+                building.onCatalogChanged(CatalogChangedEvent.deleted(CatalogChangedEvent.Entity.BOOK, 1L));
+            }
+        }));
+        when(authorRepository.streamSuggestions()).thenReturn(Stream.empty());
+
+        building.buildIndex();
+
+        assertTrue(building.suggest("война", 10).isEmpty());
+        assertEquals(List.of("Анна Каренина"), building.suggest("анна", 10).stream().map(SuggestionResponse::getText).toList());
+        assertEquals(List.of("Каштанка"), building.suggest("ка", 10).stream().map(SuggestionResponse::getText).toList());
+    }
+}